@@ -0,0 +1,100 @@
+package cn.ciphermagic.common.checker;
+
+import org.springframework.expression.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * evaluation context binding the method arguments as variables without copying them into a map.
+ * Everything else is delegated to a shared context, so an evaluation only allocates this object.
+ *
+ * @author CipherCui
+ */
+final class ArgumentsEvaluationContext implements EvaluationContext {
+
+    private final EvaluationContext shared;
+    private final String[] names;
+    private final Object[] arguments;
+    private Map<String, Object> assigned;
+
+    /**
+     * @param shared    shared context, must not be modified by evaluations
+     * @param names     parameter names
+     * @param arguments arguments
+     */
+    ArgumentsEvaluationContext(EvaluationContext shared, String[] names, Object[] arguments) {
+        this.shared = shared;
+        this.names = names;
+        this.arguments = arguments;
+    }
+
+    @Override
+    public Object lookupVariable(String name) {
+        if (assigned != null && assigned.containsKey(name)) {
+            return assigned.get(name);
+        }
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i < arguments.length ? arguments[i] : null;
+            }
+        }
+        return shared.lookupVariable(name);
+    }
+
+    @Override
+    public void setVariable(String name, Object value) {
+        // assignments stay local to this evaluation
+        if (assigned == null) {
+            assigned = new HashMap<>();
+        }
+        assigned.put(name, value);
+    }
+
+    @Override
+    public TypedValue getRootObject() {
+        return shared.getRootObject();
+    }
+
+    @Override
+    public List<PropertyAccessor> getPropertyAccessors() {
+        return shared.getPropertyAccessors();
+    }
+
+    @Override
+    public List<ConstructorResolver> getConstructorResolvers() {
+        return shared.getConstructorResolvers();
+    }
+
+    @Override
+    public List<MethodResolver> getMethodResolvers() {
+        return shared.getMethodResolvers();
+    }
+
+    @Override
+    public BeanResolver getBeanResolver() {
+        return shared.getBeanResolver();
+    }
+
+    @Override
+    public TypeLocator getTypeLocator() {
+        return shared.getTypeLocator();
+    }
+
+    @Override
+    public TypeConverter getTypeConverter() {
+        return shared.getTypeConverter();
+    }
+
+    @Override
+    public TypeComparator getTypeComparator() {
+        return shared.getTypeComparator();
+    }
+
+    @Override
+    public OperatorOverloader getOperatorOverloader() {
+        return shared.getOperatorOverloader();
+    }
+
+}
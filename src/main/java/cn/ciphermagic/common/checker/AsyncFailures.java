@@ -0,0 +1,93 @@
+package cn.ciphermagic.common.checker;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ReactiveAdapter;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * adapt the result of the unsuccessful action to asynchronous return types, so that a failed check is signalled
+ * the way the method signals its own results instead of blocking or throwing on the calling thread.
+ * <p>
+ * A Throwable becomes an error signal or a failed future, a CompletionStage or a reactive type returned by the
+ * action is converted, any other value is emitted as the single result.
+ *
+ * @author CipherCui
+ */
+final class AsyncFailures {
+
+    private static final boolean REACTOR_PRESENT = ClassUtils.isPresent("reactor.core.publisher.Mono", AsyncFailures.class.getClassLoader());
+
+    private AsyncFailures() {
+    }
+
+    /**
+     * @param returnType return type of the method
+     * @return function adapting the result of the unsuccessful action, null if the method is synchronous
+     */
+    static Function<Object, Object> forReturnType(Class<?> returnType) {
+        if (returnType != Object.class && returnType.isAssignableFrom(CompletableFuture.class)) {
+            return AsyncFailures::toFuture;
+        }
+        if (REACTOR_PRESENT) {
+            return Reactive.forReturnType(returnType);
+        }
+        return null;
+    }
+
+    private static CompletableFuture<Object> toFuture(Object failure) {
+        if (failure instanceof CompletionStage) {
+            @SuppressWarnings("unchecked")
+            CompletionStage<Object> stage = (CompletionStage<Object>) failure;
+            return stage.toCompletableFuture();
+        }
+        if (REACTOR_PRESENT && Reactive.isReactive(failure)) {
+            return Reactive.toFuture(failure);
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        if (failure instanceof Throwable) {
+            future.completeExceptionally((Throwable) failure);
+        } else {
+            future.complete(failure);
+        }
+        return future;
+    }
+
+    /**
+     * reactive types, only loaded when reactor is on the classpath
+     */
+    private static final class Reactive {
+
+        private static final ReactiveAdapterRegistry REGISTRY = ReactiveAdapterRegistry.getSharedInstance();
+
+        static Function<Object, Object> forReturnType(Class<?> returnType) {
+            ReactiveAdapter adapter = REGISTRY.getAdapter(returnType);
+            return adapter == null ? null : failure -> adapter.fromPublisher(toPublisher(failure));
+        }
+
+        static boolean isReactive(Object failure) {
+            return failure != null && !(failure instanceof Throwable) && REGISTRY.getAdapter(failure.getClass()) != null;
+        }
+
+        static CompletableFuture<Object> toFuture(Object failure) {
+            return Mono.from(toPublisher(failure)).map(Object.class::cast).toFuture();
+        }
+
+        private static Publisher<?> toPublisher(Object failure) {
+            if (failure == null) {
+                return Mono.empty();
+            }
+            if (failure instanceof Throwable) {
+                return Mono.error((Throwable) failure);
+            }
+            ReactiveAdapter adapter = REGISTRY.getAdapter(failure.getClass());
+            return adapter != null ? adapter.toPublisher(failure) : Mono.just(failure);
+        }
+    }
+
+}
@@ -18,7 +18,8 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 public @interface Check {
 
     /**
-     * field name or spel expression
+     * field name or spel expression, with an optional message after the last ':'.
+     * A ':' in the rule is written as '\:' when no message follows, e.g. "time ~= \\d{2}\\:\\d{2}"
      * @return array
      */
     String[] value() default {};
@@ -29,4 +30,24 @@ public @interface Check {
      */
     String dynamic() default "";
 
+    /**
+     * apply the field rules to every element of the first argument, which must be a collection or an array.
+     * Element rules can not use spel or argument selectors.
+     * @return whether to check each element
+     */
+    boolean each() default false;
+
+    /**
+     * mode of the rules, the mode of the checker by default.
+     * The mode of the method wins over the mode of the class
+     * @return mode
+     */
+    CheckMode mode() default CheckMode.DEFAULT;
+
+    /**
+     * fraction of calls checked in SAMPLED mode, from 0 to 1, the sample rate of the checker when negative
+     * @return sample rate
+     */
+    double sampleRate() default -1;
+
 }
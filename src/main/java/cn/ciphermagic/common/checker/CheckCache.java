@@ -0,0 +1,38 @@
+package cn.ciphermagic.common.checker;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * cache the results of spel rules of the annotated method or class, keyed on the values of the arguments the
+ * expression references. Only for idempotent rules over arguments with value equality: a result is reused
+ * until it expires, even if the data behind it changes.
+ *
+ * @author CipherCui
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RUNTIME)
+public @interface CheckCache {
+
+    /**
+     * spel rules to cache, as written in @Check or in the dynamic fields
+     * @return rules, all spel rules when empty
+     */
+    String[] value() default {};
+
+    /**
+     * time to live of a cached result
+     * @return milliseconds
+     */
+    long ttl() default 60000;
+
+    /**
+     * cached results of each rule, the least recently used ones are evicted beyond it
+     * @return max size
+     */
+    int maxSize() default 1024;
+
+}
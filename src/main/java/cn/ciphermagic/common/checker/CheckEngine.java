@@ -0,0 +1,840 @@
+package cn.ciphermagic.common.checker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * validation core shared by {@link Checker} and {@link CheckerInterceptor}.
+ * <p>
+ * Plans are cached per invoked method and target class, the rules are read from the most specific method
+ * so that interface methods of jdk proxies resolve to the implementation once.
+ *
+ * @author CipherCui
+ */
+final class CheckEngine {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CheckEngine.class);
+    private static final int REORDER_INTERVAL = 1024;
+    private final Map<MethodClassKey, CheckPlan> plans = new ConcurrentHashMap<>();
+    private final ExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer discoverer = new DefaultParameterNameDiscoverer();
+    private Function<String, Object> unsuccessful;
+    private Function<EachCheckReport, Object> eachUnsuccessful;
+    private SpelCompilerMode spelCompilerMode = SpelCompilerMode.OFF;
+    private boolean generateValidators;
+    private boolean useGeneratedValidators = true;
+    private boolean adaptiveOrdering;
+    private int eachParallelThreshold = 8192;
+    private int eachMessageLimit = 10;
+    private CheckerMetrics metrics;
+    private Executor spelExecutor;
+    private long spelTimeoutNanos;
+    private BeanResolver beanResolver;
+    private SpelContextMode spelContextMode = SpelContextMode.STANDARD;
+    private EvaluationContext sharedContext;
+    private CheckMode mode = CheckMode.ENFORCE;
+    private double sampleRate = 0.1;
+
+    void setUnsuccessful(Function<String, Object> unsuccessful) {
+        this.unsuccessful = unsuccessful;
+    }
+
+    void setEachUnsuccessful(Function<EachCheckReport, Object> eachUnsuccessful) {
+        this.eachUnsuccessful = eachUnsuccessful;
+    }
+
+    void setSpelCompilerMode(SpelCompilerMode spelCompilerMode) {
+        this.spelCompilerMode = spelCompilerMode;
+    }
+
+    void setSpelContextMode(SpelContextMode spelContextMode) {
+        this.spelContextMode = spelContextMode;
+        this.sharedContext = createSharedContext();
+    }
+
+    void setBeanResolver(BeanResolver beanResolver) {
+        this.beanResolver = beanResolver;
+        this.sharedContext = createSharedContext();
+    }
+
+    void setSpelExecutor(Executor spelExecutor) {
+        this.spelExecutor = spelExecutor;
+    }
+
+    void setSpelTimeout(long timeout, TimeUnit unit) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("spel timeout must be positive: " + timeout);
+        }
+        this.spelTimeoutNanos = unit.toNanos(timeout);
+    }
+
+    private EvaluationContext createSharedContext() {
+        if (spelContextMode == SpelContextMode.READ_ONLY) {
+            return SimpleEvaluationContext.forReadOnlyDataBinding().build();
+        }
+        if (spelContextMode == SpelContextMode.LIGHTWEIGHT) {
+            StandardEvaluationContext context = new StandardEvaluationContext();
+            context.setBeanResolver(beanResolver);
+            return context;
+        }
+        return null;
+    }
+
+    void setAdaptiveOrdering(boolean adaptiveOrdering) {
+        this.adaptiveOrdering = adaptiveOrdering;
+    }
+
+    void setEachParallelThreshold(int eachParallelThreshold) {
+        this.eachParallelThreshold = eachParallelThreshold;
+    }
+
+    void setEachMessageLimit(int eachMessageLimit) {
+        this.eachMessageLimit = eachMessageLimit;
+    }
+
+    void setMetrics(CheckerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    void setMode(CheckMode mode) {
+        this.mode = mode == null || mode == CheckMode.DEFAULT ? CheckMode.ENFORCE : mode;
+    }
+
+    void setSampleRate(double sampleRate) {
+        if (!(sampleRate >= 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("sample rate must be between 0 and 1: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    void setGenerateValidators(boolean generateValidators) {
+        this.generateValidators = generateValidators;
+    }
+
+    void setUseGeneratedValidators(boolean useGeneratedValidators) {
+        this.useGeneratedValidators = useGeneratedValidators;
+    }
+
+    /**
+     * call of the advised method
+     */
+    @FunctionalInterface
+    interface Proceed {
+        Object proceed() throws Throwable;
+    }
+
+    /**
+     * check the arguments, then proceed or return the result of the unsuccessful action.
+     * For CompletableFuture, Mono, Flux and other reactive return types the result is adapted to the return type.
+     *
+     * @param method      invoked method
+     * @param targetClass class of the target, null if unknown
+     * @param arguments   arguments
+     * @param proceed     call of the method
+     * @return result
+     * @throws Throwable method exception
+     */
+    Object invoke(Method method, Class<?> targetClass, Object[] arguments, Proceed proceed) throws Throwable {
+        CheckerMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        CheckPlan plan = getPlan(method, targetClass);
+        CheckMode mode = plan.getMode() == CheckMode.DEFAULT ? this.mode : plan.getMode();
+        if (mode == CheckMode.SAMPLED) {
+            double rate = plan.getSampleRate() < 0 ? sampleRate : plan.getSampleRate();
+            if (ThreadLocalRandom.current().nextDouble() >= rate) {
+                return proceed.proceed();
+            }
+        }
+        String msg = doCheck(plan, arguments);
+        EachCheckReport report = null;
+        if (StringUtils.isEmpty(msg) && !plan.getElementFields().isEmpty()) {
+            report = doCheckEach(plan, arguments[0]);
+        }
+        if (metrics != null) {
+            metrics.recordCheck(plan.getMethod(), System.nanoTime() - start, StringUtils.isEmpty(msg) && report == null);
+        }
+        if (StringUtils.isEmpty(msg) && report == null) {
+            return proceed.proceed();
+        }
+        if (mode == CheckMode.SHADOW) {
+            LOG.debug("shadow check failed, {}", report == null ? msg : report.getMessage());
+            return proceed.proceed();
+        }
+        Function<Object, Object> async = plan.getAsyncFailure();
+        Object failure;
+        try {
+            if (report == null) {
+                failure = unsuccessful.apply(msg);
+            } else {
+                failure = eachUnsuccessful != null ? eachUnsuccessful.apply(report) : unsuccessful.apply(report.getMessage());
+            }
+        } catch (RuntimeException e) {
+            if (async == null) {
+                throw e;
+            }
+            failure = e;
+        }
+        return async == null ? failure : async.apply(failure);
+    }
+
+    /**
+     * build and cache the plan of the method
+     *
+     * @param method      invoked method
+     * @param targetClass class of the target, null if unknown
+     * @throws IllegalArgumentException if a rule of the method is invalid
+     */
+    void precompile(Method method, Class<?> targetClass) {
+        getPlan(method, targetClass);
+    }
+
+    /**
+     * @return "method rule" to true if the spel rule runs compiled
+     */
+    Map<String, Boolean> getSpelCompilationReport() {
+        Map<String, Boolean> report = new TreeMap<>();
+        plans.values().forEach(plan -> plan.getFields().stream()
+                .filter(info -> info.spel != null)
+                .forEach(info -> report.put(ClassUtils.getQualifiedMethodName(plan.getMethod()) + " " + info.spel.getRule(),
+                        info.spel.isCompiled())));
+        return report;
+    }
+
+    /**
+     * @return "method rule" to the stats of the result cache of the spel rule
+     */
+    Map<String, SpelCacheStats> getSpelCacheStats() {
+        Map<String, SpelCacheStats> stats = new TreeMap<>();
+        plans.values().forEach(plan -> plan.getFields().stream()
+                .filter(info -> info.cache != null)
+                .forEach(info -> stats.put(ClassUtils.getQualifiedMethodName(plan.getMethod()) + " " + info.spel.getRule(),
+                        info.cache.stats())));
+        return stats;
+    }
+
+    private String doCheck(CheckPlan plan, Object[] arguments) {
+        String msg = "";
+        if (arguments.length == 0 || arguments[0] == null && plan.isFirstArgumentRequired()) {
+            msg = "param can not be null";
+        } else if (plan.getValidator() != null && arguments[0] != null) {
+            msg = plan.getValidator().validate(arguments);
+        } else if (spelExecutor != null && spelTimeoutNanos > 0 && plan.getSpelCount() > 1 && plan.getAsyncFailure() == null) {
+            msg = doConcurrentCheck(plan, arguments);
+        } else if (adaptiveOrdering && !plan.isEmpty()) {
+            msg = doAdaptiveCheck(plan, arguments);
+        } else if (!plan.isEmpty()) {
+            for (FieldInfo info : plan.getFields()) {
+                RuleResult result = evaluate(plan, info, arguments);
+                if (result == RuleResult.STOP) {
+                    break;
+                }
+                if (result == RuleResult.FAIL) {
+                    msg = info.innerMsg;
+                    break;
+                }
+            }
+        }
+        return msg;
+    }
+
+    /**
+     * check every element of the collection or array, on the fork-join pool when it is large
+     *
+     * @param plan   check plan
+     * @param target collection or array
+     * @return report, or null if all elements are valid
+     */
+    private EachCheckReport doCheckEach(CheckPlan plan, Object target) {
+        if (target == null) {
+            return new EachCheckReport(0, new BitSet(), Collections.singletonList("param can not be null"));
+        }
+        Object[] elements = target instanceof Collection ? ((Collection<?>) target).toArray() : (Object[]) target;
+        List<FieldInfo> rules = plan.getElementFields();
+        BitSet failed = new BitSet(elements.length);
+        List<String> messages = new ArrayList<>();
+        if (elements.length >= eachParallelThreshold) {
+            int[] indexes = IntStream.range(0, elements.length).parallel()
+                    .filter(i -> checkElement(rules, elements[i]) != null)
+                    .toArray();
+            for (int i : indexes) {
+                failed.set(i);
+            }
+            for (int i = failed.nextSetBit(0); i >= 0 && messages.size() < eachMessageLimit; i = failed.nextSetBit(i + 1)) {
+                messages.add("[" + i + "] " + checkElement(rules, elements[i]));
+            }
+        } else {
+            for (int i = 0; i < elements.length; i++) {
+                String msg = checkElement(rules, elements[i]);
+                if (msg != null) {
+                    failed.set(i);
+                    if (messages.size() < eachMessageLimit) {
+                        messages.add("[" + i + "] " + msg);
+                    }
+                }
+            }
+        }
+        return failed.isEmpty() ? null : new EachCheckReport(elements.length, failed, messages);
+    }
+
+    /**
+     * check an element in declaration order
+     *
+     * @param rules   element rules
+     * @param element element
+     * @return error message, or null if valid
+     */
+    private String checkElement(List<FieldInfo> rules, Object element) {
+        if (element == null) {
+            return "element can not be null";
+        }
+        for (FieldInfo info : rules) {
+            Object value = info.path.getFrom(element);
+            if (value == PropertyPath.MISSING) {
+                return null;
+            }
+            if (!info.predicate.test(value)) {
+                return info.innerMsg;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * evaluate the spel rules concurrently on the executor while the operator rules run on the calling thread.
+     * The message is the one of the first failing rule in declaration order, a rule running longer than the timeout
+     * fails, and rules after the first failure are cancelled. A rule the executor rejects runs on the calling thread,
+     * without deadline.
+     *
+     * @param plan      check plan
+     * @param arguments arguments
+     * @return error message
+     */
+    private String doConcurrentCheck(CheckPlan plan, Object[] arguments) {
+        List<FieldInfo> fields = plan.getFields();
+        List<FutureTask<RuleResult>> tasks = new ArrayList<>(Collections.nCopies(fields.size(), null));
+        long[] deadlines = new long[fields.size()];
+        // time of each spel rule, recorded by the waiting thread so that timed out and cancelled rules are not
+        long[] durations = new long[fields.size()];
+        try {
+            for (FieldInfo info : fields) {
+                if (info.spel != null) {
+                    FutureTask<RuleResult> task = new FutureTask<>(() -> {
+                        long start = System.nanoTime();
+                        RuleResult result = evaluateRule(plan, info, arguments);
+                        durations[info.index] = System.nanoTime() - start;
+                        return result;
+                    });
+                    tasks.set(info.index, task);
+                    deadlines[info.index] = System.nanoTime() + spelTimeoutNanos;
+                    try {
+                        spelExecutor.execute(task);
+                    } catch (RejectedExecutionException e) {
+                        task.run();
+                    }
+                }
+            }
+            // rules after the first failing operator rule can not change the result
+            RuleResult[] results = new RuleResult[fields.size()];
+            int last = fields.size() - 1;
+            for (FieldInfo info : fields) {
+                if (info.spel == null) {
+                    results[info.index] = evaluate(plan, info, arguments);
+                    if (results[info.index] != RuleResult.PASS) {
+                        last = info.index;
+                        break;
+                    }
+                }
+            }
+            for (int i = last + 1; i < tasks.size(); i++) {
+                cancel(tasks.get(i));
+            }
+            for (int i = 0; i <= last; i++) {
+                FieldInfo info = fields.get(i);
+                RuleResult result = info.spel == null ? results[i] : await(plan, info, tasks.get(i), deadlines[i], durations);
+                if (result == RuleResult.STOP) {
+                    return "";
+                }
+                if (result == RuleResult.FAIL) {
+                    return info.innerMsg;
+                }
+            }
+            return "";
+        } finally {
+            tasks.forEach(this::cancel);
+        }
+    }
+
+    /**
+     * wait for a spel rule running on the executor, and record it in the metrics once
+     *
+     * @return result, FAIL if the rule timed out or the waiting thread was interrupted
+     */
+    private RuleResult await(CheckPlan plan, FieldInfo info, FutureTask<RuleResult> task, long deadline, long[] durations) {
+        try {
+            RuleResult result = task.get(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+            CheckerMetrics metrics = this.metrics;
+            if (metrics != null && result != RuleResult.STOP) {
+                metrics.recordRule(plan.getMethod(), info.rule, true, durations[info.index], result == RuleResult.PASS);
+            }
+            return result;
+        } catch (TimeoutException e) {
+            LOG.debug("spel rule timed out: {}", info.rule);
+            CheckerMetrics metrics = this.metrics;
+            if (metrics != null) {
+                metrics.recordRule(plan.getMethod(), info.rule, true, spelTimeoutNanos, false);
+            }
+            return RuleResult.FAIL;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return RuleResult.FAIL;
+        } catch (ExecutionException | CancellationException e) {
+            LOG.debug("spel rule failed: {}", info.rule, e);
+            return RuleResult.FAIL;
+        }
+    }
+
+    private void cancel(FutureTask<RuleResult> task) {
+        if (task != null) {
+            task.cancel(true);
+        }
+    }
+
+    /**
+     * check the rules in adaptive order. Once a rule fails, only the rules declared before it are still evaluated,
+     * so the result is the same as checking in declaration order.
+     *
+     * @param plan      check plan
+     * @param arguments arguments
+     * @return error message
+     */
+    private String doAdaptiveCheck(CheckPlan plan, Object[] arguments) {
+        FieldInfo first = null;
+        RuleResult firstResult = RuleResult.PASS;
+        for (FieldInfo info : plan.getOrder()) {
+            if (first != null && info.index > first.index) {
+                continue;
+            }
+            RuleResult result = evaluate(plan, info, arguments);
+            info.evaluations.increment();
+            if (result == RuleResult.FAIL) {
+                info.failures.increment();
+            }
+            if (result != RuleResult.PASS) {
+                first = info;
+                firstResult = result;
+            }
+        }
+        if (ThreadLocalRandom.current().nextInt(REORDER_INTERVAL) == 0) {
+            plan.reorder();
+        }
+        return firstResult == RuleResult.FAIL ? first.innerMsg : "";
+    }
+
+    /**
+     * evaluate a rule
+     *
+     * @param plan      check plan
+     * @param info      rule
+     * @param arguments arguments
+     * @return result, STOP if a getter of the path is missing
+     */
+    private RuleResult evaluate(CheckPlan plan, FieldInfo info, Object[] arguments) {
+        CheckerMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return evaluateRule(plan, info, arguments);
+        }
+        long start = System.nanoTime();
+        RuleResult result = evaluateRule(plan, info, arguments);
+        if (result != RuleResult.STOP) {
+            metrics.recordRule(plan.getMethod(), info.rule, info.spel != null, System.nanoTime() - start, result == RuleResult.PASS);
+        }
+        return result;
+    }
+
+    private RuleResult evaluateRule(CheckPlan plan, FieldInfo info, Object[] arguments) {
+        boolean isValid;
+        if (info.optEnum == Operator.SPEL) {
+            isValid = evaluateSpel(plan, info, arguments);
+        } else {
+            Object value = info.path.get(arguments);
+            if (value == PropertyPath.MISSING) {
+                return RuleResult.STOP;
+            }
+            isValid = info.predicate.test(value);
+        }
+        return isValid ? RuleResult.PASS : RuleResult.FAIL;
+    }
+
+    /**
+     * evaluate a spel rule, through its result cache if it has one. Failed evaluations are not cached.
+     *
+     * @param plan      check plan
+     * @param info      rule
+     * @param arguments arguments
+     * @return is match
+     */
+    private boolean evaluateSpel(CheckPlan plan, FieldInfo info, Object[] arguments) {
+        SpelResultCache cache = info.cache;
+        if (cache == null) {
+            return Boolean.TRUE.equals(parseSpel(plan.getParameterNames(), arguments, info.spel));
+        }
+        List<Object> key = cache.key(arguments);
+        Boolean isValid = cache.get(key);
+        if (isValid == null) {
+            isValid = parseSpel(plan.getParameterNames(), arguments, info.spel);
+            if (isValid == null) {
+                return false;
+            }
+            cache.put(key, isValid);
+        }
+        return isValid;
+    }
+
+    /**
+     * get the cached plan of the method, build it when absent or when the dynamic fields have changed.
+     * Rebuilds are done once per key under the lock of the map, against the latest snapshot,
+     * so concurrent calls wait for the new plan and an older rebuild never replaces a newer one.
+     *
+     * @param method      invoked method
+     * @param targetClass class of the target, null if unknown
+     * @return check plan
+     */
+    private CheckPlan getPlan(Method method, Class<?> targetClass) {
+        MethodClassKey key = new MethodClassKey(method, targetClass);
+        CheckPlan plan = plans.get(key);
+        if (plan != null && !plan.isStale(DynamicRules.snapshot())) {
+            return plan;
+        }
+        return plans.compute(key, (k, current) -> {
+            DynamicRules.Snapshot snapshot = DynamicRules.snapshot();
+            if (current != null && !current.isStale(snapshot)) {
+                return current;
+            }
+            return buildPlan(AopUtils.getMostSpecificMethod(method, targetClass), method, snapshot);
+        });
+    }
+
+    /**
+     * resolve all rules of the method once
+     *
+     * @param method   most specific method, holding the rules
+     * @param invoked  invoked method, whose rules are used when the most specific one has none
+     * @param snapshot snapshot of the dynamic fields
+     * @return check plan
+     */
+    private CheckPlan buildPlan(Method method, Method invoked, DynamicRules.Snapshot snapshot) {
+        List<Check> checks = getChecks(method);
+        if (checks.isEmpty() && invoked != method) {
+            method = invoked;
+            checks = getChecks(method);
+        }
+        String methodInfo = StringUtils.isEmpty(method.getName()) ? "" : " while calling " + method.getName();
+        List<RuleSpec> specs = new ArrayList<>();
+        List<RuleSpec> elementSpecs = new ArrayList<>();
+        Map<String, DynamicRules.RuleSet> dynamicSets = new LinkedHashMap<>();
+        CheckMode mode = CheckMode.DEFAULT;
+        double sampleRate = -1;
+        for (Check check : checks) {
+            if (mode == CheckMode.DEFAULT) {
+                mode = check.mode();
+            }
+            if (sampleRate < 0) {
+                sampleRate = check.sampleRate();
+            }
+            if (sampleRate > 1 || Double.isNaN(sampleRate)) {
+                throw new IllegalArgumentException("@Check annotation error: sample rate " + sampleRate + methodInfo);
+            }
+            List<RuleSpec> target = check.each() ? elementSpecs : specs;
+            Arrays.stream(check.value()).filter(f -> !StringUtils.isEmpty(f)).map(RuleSpec::parse).forEach(target::add);
+            if (!StringUtils.isEmpty(check.dynamic())) {
+                DynamicRules.RuleSet set = snapshot.get(check.dynamic());
+                dynamicSets.put(check.dynamic(), set);
+                if (set != null) {
+                    target.addAll(set.specs);
+                }
+            }
+        }
+        Method resolved = method;
+        List<FieldInfo> infos = specs.stream()
+                .map(spec -> resolveField(spec, resolved, methodInfo))
+                .collect(Collectors.toList());
+        for (int i = 0; i < infos.size(); i++) {
+            infos.get(i).index = i;
+        }
+        String[] parameterNames = infos.stream().anyMatch(info -> info.spel != null) ? getParameterNames(method) : null;
+        if (parameterNames != null) {
+            addCaches(method, infos, parameterNames);
+        }
+        CheckValidator validator = useGeneratedValidators && dynamicSets.isEmpty() ? GeneratedValidators.find(method) : null;
+        if (validator == null && generateValidators && dynamicSets.isEmpty()) {
+            validator = CheckValidatorGenerator.generate(method, infos);
+        }
+        List<FieldInfo> elementInfos = elementSpecs.stream()
+                .map(spec -> resolveElementField(spec, resolved, methodInfo))
+                .collect(Collectors.toList());
+        return new CheckPlan(method, infos, elementInfos, validator, parameterNames, dynamicSets, snapshot,
+                AsyncFailures.forReturnType(invoked.getReturnType()), mode, sampleRate);
+    }
+
+    /**
+     * attach result caches to the spel rules selected by @CheckCache on the method or its class
+     *
+     * @param method         method
+     * @param infos          rules
+     * @param parameterNames parameter names
+     */
+    private void addCaches(Method method, List<FieldInfo> infos, String[] parameterNames) {
+        CheckCache config = AnnotatedElementUtils.findMergedAnnotation(method, CheckCache.class);
+        if (config == null) {
+            config = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), CheckCache.class);
+        }
+        if (config == null) {
+            return;
+        }
+        Set<String> selected = Arrays.stream(config.value()).map(rule -> RuleSpec.splitMessage(rule)[0]).collect(Collectors.toSet());
+        for (FieldInfo info : infos) {
+            if (info.spel != null && (selected.isEmpty() || selected.contains(info.field))) {
+                info.cache = SpelResultCache.create(info.spel, parameterNames, method.getParameterTypes(), config);
+                if (info.cache == null) {
+                    LOG.warn("spel rule {} of {} is not cached, it references variables other than non-array arguments",
+                            info.field, method);
+                }
+            }
+        }
+    }
+
+    /**
+     * resolve the parameter names for spel rules, from -parameters reflection data or the local variable table
+     *
+     * @param method method
+     * @return parameter names
+     * @throws IllegalStateException if the names can not be resolved
+     */
+    private String[] getParameterNames(Method method) {
+        String[] names = discoverer.getParameterNames(method);
+        if (names == null) {
+            throw new IllegalStateException("could not resolve parameter names of " + method
+                    + ", compile with -parameters or debug info to use spel rules");
+        }
+        return names;
+    }
+
+    /**
+     * parse spel expression
+     *
+     * @param params    parameter names of the method
+     * @param arguments arguments
+     * @param spel      parsed spel rule
+     * @return is match, null if the evaluation failed
+     */
+    private Boolean parseSpel(String[] params, Object[] arguments, SpelRule spel) {
+        EvaluationContext context;
+        if (sharedContext != null) {
+            context = new ArgumentsEvaluationContext(sharedContext, params, arguments);
+        } else {
+            StandardEvaluationContext standard = new StandardEvaluationContext();
+            standard.setBeanResolver(beanResolver);
+            context = standard;
+            for (int len = 0; len < params.length; len++) {
+                context.setVariable(params[len], arguments[len]);
+            }
+        }
+        try {
+            return Boolean.TRUE.equals(spel.getValue(context));
+        } catch (Exception e) {
+            if (!isInterruption(e)) {
+                LOG.warn("spel rule failed: {}", spel.getRule(), e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the evaluation was stopped by the cancellation of a concurrent rule
+     */
+    private static boolean isInterruption(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * bind the parsed rule to the method
+     *
+     * @param spec       parsed rule
+     * @param method     method
+     * @param methodInfo method info
+     * @return the entity contain field's info
+     */
+    private FieldInfo resolveField(RuleSpec spec, Method method, String methodInfo) {
+        if (spec.path != null && spec.path.argumentIndex >= Math.max(method.getParameterCount(), 1)) {
+            throw new IllegalArgumentException("@Check annotation error: " + spec.field + ", " + method.getName()
+                    + " has " + method.getParameterCount() + " params");
+        }
+        FieldInfo fieldInfo = new FieldInfo();
+        fieldInfo.field = spec.field;
+        fieldInfo.optEnum = spec.optEnum;
+        fieldInfo.operator = spec.symbol;
+        fieldInfo.operatorNum = spec.operatorNum;
+        fieldInfo.path = spec.path;
+        fieldInfo.cost = spec.cost();
+        fieldInfo.predicate = spec.predicate;
+        fieldInfo.innerMsg = spec.message(methodInfo);
+        fieldInfo.rule = spec.operatorNum == null ? spec.field : spec.field + " " + spec.symbol + " " + spec.operatorNum;
+        if (fieldInfo.optEnum == Operator.SPEL) {
+            try {
+                fieldInfo.spel = spec.expression != null ? new SpelRule(spec.expression, spelCompilerMode)
+                        : new SpelRule(parser, fieldInfo.field, spelCompilerMode);
+            } catch (ParseException e) {
+                throw new IllegalArgumentException("@Check annotation error: " + fieldInfo.field, e);
+            }
+        }
+        return fieldInfo;
+    }
+
+    /**
+     * bind the parsed rule to the elements of the first argument
+     *
+     * @param spec       parsed rule
+     * @param method     method
+     * @param methodInfo method info
+     * @return the entity contain field's info
+     */
+    private FieldInfo resolveElementField(RuleSpec spec, Method method, String methodInfo) {
+        if (spec.path == null || spec.field.startsWith("[")) {
+            throw new IllegalArgumentException("@Check annotation error: " + spec.field
+                    + ", element rules can not use spel or argument selectors");
+        }
+        Class<?>[] types = method.getParameterTypes();
+        if (types.length == 0 || !(Collection.class.isAssignableFrom(types[0]) || Object[].class.isAssignableFrom(types[0]))) {
+            throw new IllegalArgumentException("@Check annotation error: " + spec.field + ", the first param of "
+                    + method.getName() + " must be a collection or an array");
+        }
+        return resolveField(spec, method, methodInfo);
+    }
+
+    /**
+     * @return @Check annotations declared on the method, then on its class
+     */
+    private List<Check> getChecks(Method method) {
+        List<Check> list = new ArrayList<>();
+        MergedAnnotations.from(method).stream(Check.class)
+                .filter(MergedAnnotation::isPresent)
+                .map(MergedAnnotation::synthesize)
+                .forEach(list::add);
+        MergedAnnotations.from(method.getDeclaringClass()).stream(Check.class)
+                .filter(MergedAnnotation::isPresent)
+                .map(MergedAnnotation::synthesize)
+                .forEach(list::add);
+        return list;
+    }
+
+    /**
+     * file info
+     */
+    static class FieldInfo {
+        /**
+         * rule as declared, for metrics
+         */
+        String rule;
+        /**
+         * field
+         */
+        String field;
+        /**
+         * prompt message
+         */
+        String innerMsg;
+        /**
+         * operator
+         */
+        String operator;
+        /**
+         * num of operator
+         */
+        String operatorNum;
+        /**
+         * enum of operator
+         */
+        Operator optEnum;
+        /**
+         * parsed spel rule
+         */
+        SpelRule spel;
+        /**
+         * result cache of the spel rule, null if not cached
+         */
+        SpelResultCache cache;
+        /**
+         * compiled path of the field
+         */
+        PropertyPath path;
+        /**
+         * compiled operator and operand
+         */
+        ValuePredicate predicate;
+        /**
+         * index in declaration order
+         */
+        int index;
+        /**
+         * estimated relative cost of an evaluation
+         */
+        int cost;
+        /**
+         * evaluations in adaptive order
+         */
+        final LongAdder evaluations = new LongAdder();
+        /**
+         * failures in adaptive order
+         */
+        final LongAdder failures = new LongAdder();
+    }
+
+    /**
+     * result of a rule
+     */
+    enum RuleResult {
+        /**
+         * rule passed
+         */
+        PASS,
+        /**
+         * rule failed
+         */
+        FAIL,
+        /**
+         * getter not found, the remaining rules are skipped
+         */
+        STOP
+    }
+
+}
@@ -0,0 +1,31 @@
+package cn.ciphermagic.common.checker;
+
+/**
+ * how the rules of a method are applied
+ *
+ * @author CipherCui
+ */
+public enum CheckMode {
+
+    /**
+     * the mode set on the checker, ENFORCE if none. Only meaningful on @Check
+     */
+    DEFAULT,
+
+    /**
+     * check every call and reject those failing the rules
+     */
+    ENFORCE,
+
+    /**
+     * check every call, failures are counted by the metrics and logged at debug level but never rejected
+     */
+    SHADOW,
+
+    /**
+     * check a random fraction of the calls, see sampleRate, and reject those failing the rules.
+     * Other calls proceed unchecked
+     */
+    SAMPLED
+
+}
@@ -0,0 +1,35 @@
+package cn.ciphermagic.common.checker;
+
+/**
+ * operator of field rules, such as {@code code ~= ^[A-Z]{3}$}. Register it with {@link CheckOperators#register},
+ * or list it in META-INF/services/cn.ciphermagic.common.checker.CheckOperator to load it at startup
+ * (and let the annotation processor read the rules using it).
+ *
+ * @author CipherCui
+ */
+public interface CheckOperator {
+
+    /**
+     * symbol written between the field and the operand, for example {@code ~=} or {@code in}
+     *
+     * @return symbol, without whitespace or ':'
+     */
+    String getSymbol();
+
+    /**
+     * compile the operand once, when the rule is parsed
+     *
+     * @param operand operand of the rule, trimmed
+     * @return predicate on the field value, called concurrently
+     * @throws IllegalArgumentException if the operand is invalid
+     */
+    ValuePredicate compile(String operand);
+
+    /**
+     * @return estimated relative cost of an evaluation, comparisons cost 2 and spel 10
+     */
+    default int getCost() {
+        return 2;
+    }
+
+}
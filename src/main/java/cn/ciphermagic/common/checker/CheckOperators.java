@@ -0,0 +1,104 @@
+package cn.ciphermagic.common.checker;
+
+import java.util.*;
+
+/**
+ * global registry of the operators of field rules. Operators apply to rules parsed after their registration,
+ * plans already built keep their predicates.
+ *
+ * @author CipherCui
+ */
+public final class CheckOperators {
+
+    private static final Map<String, Operator> BUILT_IN = new HashMap<>();
+    private static volatile Map<String, CheckOperator> registered = Collections.emptyMap();
+
+    static {
+        for (Operator operator : Operator.values()) {
+            if (operator.symbol) {
+                BUILT_IN.put(operator.value, operator);
+            }
+        }
+        for (CheckOperator operator : ServiceLoader.load(CheckOperator.class, CheckOperators.class.getClassLoader())) {
+            register(operator);
+        }
+    }
+
+    private CheckOperators() {
+    }
+
+    /**
+     * register an operator
+     *
+     * @param operator operator
+     * @throws IllegalArgumentException if the symbol is invalid or already used
+     */
+    public static synchronized void register(CheckOperator operator) {
+        String symbol = operator.getSymbol();
+        if (symbol == null || symbol.isEmpty() || symbol.contains(":") || symbol.chars().anyMatch(Character::isWhitespace)) {
+            throw new IllegalArgumentException("illegal operator symbol: " + symbol);
+        }
+        if (BUILT_IN.containsKey(symbol) || registered.containsKey(symbol)) {
+            throw new IllegalArgumentException("operator already registered: " + symbol);
+        }
+        Map<String, CheckOperator> operators = new HashMap<>(registered);
+        operators.put(symbol, operator);
+        registered = Collections.unmodifiableMap(operators);
+    }
+
+    /**
+     * remove a registered operator, built-in operators can not be removed
+     *
+     * @param symbol symbol of the operator
+     * @return true if it was registered
+     */
+    public static synchronized boolean unregister(String symbol) {
+        if (!registered.containsKey(symbol)) {
+            return false;
+        }
+        Map<String, CheckOperator> operators = new HashMap<>(registered);
+        operators.remove(symbol);
+        registered = Collections.unmodifiableMap(operators);
+        return true;
+    }
+
+    /**
+     * @param symbol symbol
+     * @return built-in operator of the symbol, or null
+     */
+    static Operator builtIn(String symbol) {
+        return BUILT_IN.get(symbol);
+    }
+
+    /**
+     * @param symbol symbol
+     * @return registered operator of the symbol, or null
+     */
+    static CheckOperator registered(String symbol) {
+        return registered.get(symbol);
+    }
+
+    /**
+     * find the longest symbol the text starts with. Symbols ending with a letter must be followed by a non
+     * identifier character, so that {@code in} does not match {@code inner}
+     *
+     * @param text text following the field
+     * @return symbol, or null if none matches
+     */
+    static String match(String text) {
+        String found = match(text, BUILT_IN.keySet(), null);
+        return match(text, registered.keySet(), found);
+    }
+
+    private static String match(String text, Set<String> symbols, String found) {
+        for (String symbol : symbols) {
+            if ((found == null || symbol.length() > found.length()) && text.startsWith(symbol)
+                    && !(Character.isJavaIdentifierPart(symbol.charAt(symbol.length() - 1))
+                    && text.length() > symbol.length() && Character.isJavaIdentifierPart(text.charAt(symbol.length())))) {
+                found = symbol;
+            }
+        }
+        return found;
+    }
+
+}
@@ -0,0 +1,175 @@
+package cn.ciphermagic.common.checker;
+
+import cn.ciphermagic.common.checker.CheckEngine.FieldInfo;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * immutable check plan of a method, rules are resolved once and reused by every call
+ *
+ * @author CipherCui
+ */
+final class CheckPlan {
+
+    /**
+     * method holding the rules
+     */
+    private final Method method;
+    /**
+     * resolved rules, in declaration order
+     */
+    private final List<FieldInfo> fields;
+    /**
+     * number of spel rules
+     */
+    private final int spelCount;
+    /**
+     * whether a rule implicitly reads the first argument, which must then not be null. Rules with an argument selector
+     * handle null arguments themselves
+     */
+    private final boolean firstArgumentRequired;
+    /**
+     * rules applied to each element of the first argument, in declaration order
+     */
+    private final List<FieldInfo> elementFields;
+    /**
+     * rules in adaptive evaluation order
+     */
+    private volatile FieldInfo[] order;
+    /**
+     * generated validator, null to check the rules one by one
+     */
+    private final CheckValidator validator;
+    /**
+     * parameter names of the method, null if there is no spel rule
+     */
+    private final String[] parameterNames;
+    /**
+     * key of each dynamic field used by the plan, to the rule set it was built with (null if absent)
+     */
+    private final Map<String, DynamicRules.RuleSet> dynamicSets;
+    /**
+     * latest snapshot of the dynamic rules known to match the plan
+     */
+    private volatile DynamicRules.Snapshot snapshot;
+    /**
+     * adapter of the unsuccessful result to the asynchronous return type, null if the method is synchronous
+     */
+    private final Function<Object, Object> asyncFailure;
+    /**
+     * mode set by @Check, DEFAULT to use the mode of the checker
+     */
+    private final CheckMode mode;
+    /**
+     * sample rate set by @Check, negative to use the rate of the checker
+     */
+    private final double sampleRate;
+
+    CheckPlan(Method method, List<FieldInfo> fields, List<FieldInfo> elementFields, CheckValidator validator, String[] parameterNames,
+              Map<String, DynamicRules.RuleSet> dynamicSets, DynamicRules.Snapshot snapshot,
+              Function<Object, Object> asyncFailure, CheckMode mode, double sampleRate) {
+        this.method = method;
+        this.fields = Collections.unmodifiableList(fields);
+        this.spelCount = (int) fields.stream().filter(info -> info.spel != null).count();
+        this.firstArgumentRequired = fields.stream().anyMatch(info -> !info.field.startsWith("["));
+        this.elementFields = Collections.unmodifiableList(elementFields);
+        this.order = fields.stream()
+                .sorted(Comparator.comparingInt((FieldInfo info) -> info.cost).thenComparingInt(info -> info.index))
+                .toArray(FieldInfo[]::new);
+        this.validator = validator;
+        this.parameterNames = parameterNames;
+        this.dynamicSets = dynamicSets;
+        this.snapshot = snapshot;
+        this.asyncFailure = asyncFailure;
+        this.mode = mode;
+        this.sampleRate = sampleRate;
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    List<FieldInfo> getFields() {
+        return fields;
+    }
+
+    int getSpelCount() {
+        return spelCount;
+    }
+
+    boolean isFirstArgumentRequired() {
+        return firstArgumentRequired;
+    }
+
+    List<FieldInfo> getElementFields() {
+        return elementFields;
+    }
+
+    FieldInfo[] getOrder() {
+        return order;
+    }
+
+    /**
+     * sort the rules by observed failure rate per unit of cost, most rejecting first
+     */
+    void reorder() {
+        FieldInfo[] next = order.clone();
+        double[] scores = new double[fields.size()];
+        for (FieldInfo info : next) {
+            double failureRate = (info.failures.sum() + 1d) / (info.evaluations.sum() + 2d);
+            scores[info.index] = failureRate / info.cost;
+        }
+        Arrays.sort(next, Comparator.comparingDouble((FieldInfo info) -> -scores[info.index]).thenComparingInt(info -> info.index));
+        order = next;
+    }
+
+    Function<Object, Object> getAsyncFailure() {
+        return asyncFailure;
+    }
+
+    CheckMode getMode() {
+        return mode;
+    }
+
+    double getSampleRate() {
+        return sampleRate;
+    }
+
+    CheckValidator getValidator() {
+        return validator;
+    }
+
+    String[] getParameterNames() {
+        return parameterNames;
+    }
+
+    boolean isEmpty() {
+        return fields.isEmpty();
+    }
+
+    /**
+     * is the plan out of date, only changes of its own dynamic keys make it stale
+     *
+     * @param current current snapshot of the dynamic rules
+     * @return true if the plan should be rebuilt
+     */
+    boolean isStale(DynamicRules.Snapshot current) {
+        if (dynamicSets.isEmpty() || snapshot == current) {
+            return false;
+        }
+        for (Map.Entry<String, DynamicRules.RuleSet> entry : dynamicSets.entrySet()) {
+            if (current.get(entry.getKey()) != entry.getValue()) {
+                return true;
+            }
+        }
+        snapshot = current;
+        return false;
+    }
+
+}
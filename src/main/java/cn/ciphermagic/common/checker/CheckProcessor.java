@@ -0,0 +1,312 @@
+package cn.ciphermagic.common.checker;
+
+import cn.ciphermagic.common.checker.CheckValidatorGenerator.ValueType;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * annotation processor generating a validator class for each @Check method whose rules can be compiled,
+ * with an index under {@value GeneratedValidators#INDEX} used by CheckerInterceptor.
+ * <p>
+ * Methods using spel, nested paths, other arguments, dynamic fields or operators unknown at build time are left
+ * to the runtime. Invalid rules are reported as warnings and also left to the runtime, which rejects them.
+ * <p>
+ * The processor is not registered as a service, a project enables it in its compiler configuration:
+ * <pre>
+ * &lt;annotationProcessorPaths&gt;
+ *     &lt;path&gt;
+ *         &lt;groupId&gt;cn.ciphermagic&lt;/groupId&gt;
+ *         &lt;artifactId&gt;spring-tools&lt;/artifactId&gt;
+ *         &lt;version&gt;${spring-tools.version}&lt;/version&gt;
+ *     &lt;/path&gt;
+ * &lt;/annotationProcessorPaths&gt;
+ * &lt;annotationProcessors&gt;
+ *     &lt;annotationProcessor&gt;cn.ciphermagic.common.checker.CheckProcessor&lt;/annotationProcessor&gt;
+ * &lt;/annotationProcessors&gt;
+ * </pre>
+ * Generated validators only replace the evaluation of the rules, the annotations are still read when the plan
+ * of a method is built. See {@link CheckerSupport#setUseGeneratedValidators(boolean)}.
+ *
+ * @author CipherCui
+ */
+@SupportedAnnotationTypes("cn.ciphermagic.common.checker.Check")
+public class CheckProcessor extends AbstractProcessor {
+
+    private final Map<String, String> index = new TreeMap<>();
+    private final Map<String, Integer> counters = new HashMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+        Set<ExecutableElement> methods = new LinkedHashSet<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(Check.class)) {
+            if (element.getKind() == ElementKind.METHOD) {
+                methods.add((ExecutableElement) element);
+            } else if (element.getKind().isClass() || element.getKind().isInterface()) {
+                methods.addAll(ElementFilter.methodsIn(element.getEnclosedElements()));
+            }
+        }
+        for (ExecutableElement method : methods) {
+            if (!method.getModifiers().contains(Modifier.PRIVATE) && !method.getModifiers().contains(Modifier.STATIC)) {
+                process(method);
+            }
+        }
+        return false;
+    }
+
+    private void process(ExecutableElement method) {
+        TypeElement owner = (TypeElement) method.getEnclosingElement();
+        List<Check> checks = new ArrayList<>();
+        if (!collectChecks(method, checks) || !collectChecks(owner, checks)) {
+            return;
+        }
+        String methodInfo = " while calling " + method.getSimpleName();
+        List<RuleSpec> specs = new ArrayList<>();
+        for (Check check : checks) {
+            if (!StringUtils.isEmpty(check.dynamic())) {
+                return;
+            }
+            for (String field : check.value()) {
+                if (StringUtils.isEmpty(field)) {
+                    continue;
+                }
+                RuleSpec spec;
+                try {
+                    spec = RuleSpec.parse(field);
+                } catch (RuleSpec.UnknownOperatorException e) {
+                    // may be registered at runtime by CheckOperators.register or a provider, left to the runtime
+                    return;
+                } catch (IllegalArgumentException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, e.getMessage(), method);
+                    return;
+                }
+                if (spec.path != null && spec.path.argumentIndex >= Math.max(method.getParameters().size(), 1)) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "@Check annotation error: "
+                            + spec.field + ", " + method.getSimpleName() + " has " + method.getParameters().size() + " params", method);
+                    return;
+                }
+                if (!check.each()) {
+                    specs.add(spec);
+                }
+            }
+        }
+        if (specs.isEmpty() || method.getParameters().isEmpty()) {
+            return;
+        }
+        String source = generate(method, owner, specs, methodInfo);
+        if (source == null) {
+            return;
+        }
+        Elements elements = processingEnv.getElementUtils();
+        String packageName = elements.getPackageOf(owner).getQualifiedName().toString();
+        String ownerName = elements.getBinaryName(owner).toString();
+        int n = counters.merge(ownerName, 1, Integer::sum);
+        String className = ownerName + "$$GeneratedCheckValidator$$" + n;
+        String simpleName = className.substring(packageName.isEmpty() ? 0 : packageName.length() + 1);
+        try (Writer writer = processingEnv.getFiler().createSourceFile(className, owner).openWriter()) {
+            if (!packageName.isEmpty()) {
+                writer.write("package " + packageName + ";\n\n");
+            }
+            writer.write("public final class " + simpleName + " implements " + CheckValidator.class.getName() + " {\n\n");
+            writer.write(source);
+            writer.write("}\n");
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "could not write " + className + ": " + e, method);
+            return;
+        }
+        index.put(GeneratedValidators.key(ownerName, method.getSimpleName().toString(), parameterTypes(method)), className);
+    }
+
+    /**
+     * add the @Check annotation declared directly on the element, as CheckEngine does
+     *
+     * @return false if the element has composed annotations, which are left to the runtime
+     */
+    private boolean collectChecks(Element element, List<Check> checks) {
+        boolean present = false;
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(Check.class.getName())) {
+                present = true;
+            } else if (type.getAnnotation(Check.class) != null) {
+                return false;
+            }
+        }
+        if (present) {
+            checks.add(element.getAnnotation(Check.class));
+        }
+        return true;
+    }
+
+    /**
+     * generate the members of the validator, following CheckValidatorGenerator
+     *
+     * @return source, or null if a rule can not be generated
+     */
+    private String generate(ExecutableElement method, TypeElement owner, List<RuleSpec> specs, String methodInfo) {
+        TypeMirror paramType = method.getParameters().get(0).asType();
+        if (paramType.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement type = (TypeElement) ((DeclaredType) paramType).asElement();
+        String typeName = type.getQualifiedName().toString();
+        if (typeName.startsWith("java.") || !isAccessible(type, owner)) {
+            return null;
+        }
+        List<String> messages = new ArrayList<>();
+        List<String> constants = new ArrayList<>();
+        StringBuilder body = new StringBuilder();
+        body.append(typeName).append(" vo = (").append(typeName).append(") arguments[0];\n");
+        for (int i = 0; i < specs.size(); i++) {
+            RuleSpec spec = specs.get(i);
+            if (spec.optEnum == Operator.SPEL || !spec.path.isSimple()) {
+                return null;
+            }
+            ExecutableElement getter = findGetter(type, "get" + StringUtils.capitalize(spec.field));
+            if (getter == null || !isAccessible(getter, owner)) {
+                return null;
+            }
+            if (!CheckValidatorGenerator.appendRule(body, spec.optEnum, spec.operatorNum, valueType(getter.getReturnType()),
+                    getter.getSimpleName().toString(), spec.message(methodInfo), i, messages, constants)) {
+                return null;
+            }
+        }
+        body.append("return null;\n");
+        StringBuilder source = new StringBuilder();
+        source.append("    private static final String[] m = ").append(arrayLiteral(messages)).append(";\n");
+        source.append("    private static final String[] c = ").append(arrayLiteral(constants)).append(";\n\n");
+        source.append("    @Override\n    public String validate(Object[] arguments) {\n");
+        for (String line : body.toString().split("\n")) {
+            source.append("        ").append(line).append("\n");
+        }
+        source.append("    }\n\n");
+        return source.toString();
+    }
+
+    private ExecutableElement findGetter(TypeElement type, String name) {
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (method.getSimpleName().contentEquals(name) && method.getParameters().isEmpty()
+                    && !method.getModifiers().contains(Modifier.PRIVATE) && !method.getModifiers().contains(Modifier.STATIC)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the element can be used from the package of the owner
+     */
+    private boolean isAccessible(Element element, TypeElement owner) {
+        Elements elements = processingEnv.getElementUtils();
+        boolean samePackage = elements.getPackageOf(element).equals(elements.getPackageOf(owner));
+        for (Element e = element; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            Set<Modifier> modifiers = e.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || !samePackage && !modifiers.contains(Modifier.PUBLIC)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ValueType valueType(TypeMirror type) {
+        Types types = processingEnv.getTypeUtils();
+        if (type.getKind().isPrimitive()) {
+            return new ValueType(type.toString(), true, false, false);
+        }
+        TypeMirror erased = types.erasure(type);
+        if (erased.getKind() != TypeKind.DECLARED) {
+            return new ValueType(Object.class.getName(), false, false, false);
+        }
+        Elements elements = processingEnv.getElementUtils();
+        TypeMirror collection = types.erasure(elements.getTypeElement(Collection.class.getName()).asType());
+        TypeMirror number = elements.getTypeElement(Number.class.getName()).asType();
+        return new ValueType(((TypeElement) types.asElement(erased)).getQualifiedName().toString(), false,
+                types.isAssignable(erased, collection), types.isAssignable(erased, number));
+    }
+
+    private List<String> parameterTypes(ExecutableElement method) {
+        Types types = processingEnv.getTypeUtils();
+        List<String> names = new ArrayList<>();
+        for (VariableElement parameter : method.getParameters()) {
+            names.add(typeName(types.erasure(parameter.asType())));
+        }
+        return names;
+    }
+
+    /**
+     * @return name of the type as returned by Class#getTypeName
+     */
+    private String typeName(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return typeName(((javax.lang.model.type.ArrayType) type).getComponentType()) + "[]";
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            return processingEnv.getElementUtils().getBinaryName((TypeElement) ((DeclaredType) type).asElement()).toString();
+        }
+        return type.toString();
+    }
+
+    private void writeIndex() {
+        if (index.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", GeneratedValidators.INDEX);
+            try (Writer writer = file.openWriter()) {
+                for (Map.Entry<String, String> entry : index.entrySet()) {
+                    writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "could not write " + GeneratedValidators.INDEX + ": " + e);
+        }
+    }
+
+    private static String arrayLiteral(List<String> values) {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < values.size(); i++) {
+            sb.append(i == 0 ? "" : ", ").append(stringLiteral(values.get(i)));
+        }
+        return sb.append("}").toString();
+    }
+
+    private static String stringLiteral(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char ch : value.toCharArray()) {
+            if (ch == '"' || ch == '\\') {
+                sb.append('\\').append(ch);
+            } else if (ch < 0x20 || ch > 0x7e) {
+                sb.append(String.format("\\u%04x", (int) ch));
+            } else {
+                sb.append(ch);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+}
@@ -0,0 +1,18 @@
+package cn.ciphermagic.common.checker;
+
+/**
+ * validator of a checked method, implemented by generated classes
+ *
+ * @author CipherCui
+ */
+public interface CheckValidator {
+
+    /**
+     * check the arguments of the method
+     *
+     * @param arguments method arguments
+     * @return error message, or null if the arguments are valid
+     */
+    String validate(Object[] arguments);
+
+}
@@ -0,0 +1,275 @@
+package cn.ciphermagic.common.checker;
+
+import cn.ciphermagic.common.checker.CheckEngine.FieldInfo;
+import javassist.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * generate a validator class by javassist for the rules of a method.
+ * <p>
+ * The generated class calls the getters directly and compares against constants parsed at generation time.
+ * Rules it can not express (spel, nested paths or other arguments, getters missing on the declared param type,
+ * values of other types) make the generation return null, so the caller keeps the interpretive check.
+ *
+ * @author CipherCui
+ */
+final class CheckValidatorGenerator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CheckValidatorGenerator.class);
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+    /**
+     * whether a failed generation was already logged at info level, later ones are logged at debug level
+     */
+    private static final AtomicBoolean FAILURE_LOGGED = new AtomicBoolean();
+    /**
+     * operators turned into source, rules using other operators keep the interpretive check
+     */
+    private static final Set<Operator> GENERATED = EnumSet.of(Operator.GREATER_THAN, Operator.GREATER_THAN_EQUAL,
+            Operator.LESS_THAN, Operator.LESS_THAN_EQUAL, Operator.NOT_EQUAL, Operator.NOT_NULL);
+
+    private CheckValidatorGenerator() {
+    }
+
+    /**
+     * generate the validator
+     *
+     * @param method method to check
+     * @param fields resolved rules of the method
+     * @return validator, or null if the rules can not be generated
+     */
+    static CheckValidator generate(Method method, List<FieldInfo> fields) {
+        if (fields.isEmpty() || method.getParameterCount() == 0) {
+            return null;
+        }
+        Class<?> type = method.getParameterTypes()[0];
+        if (type.isPrimitive() || type.isArray() || type.getName().startsWith("java.")) {
+            return null;
+        }
+        List<String> messages = new ArrayList<>();
+        List<String> constants = new ArrayList<>();
+        StringBuilder body = new StringBuilder("{\n");
+        body.append(type.getName()).append(" vo = (").append(type.getName()).append(") $1[0];\n");
+        for (int i = 0; i < fields.size(); i++) {
+            FieldInfo info = fields.get(i);
+            if (info.optEnum == Operator.SPEL || !info.path.isSimple()) {
+                return null;
+            }
+            Method getter = ReflectionUtils.findMethod(type, "get" + StringUtils.capitalize(info.field));
+            if (getter == null || java.lang.reflect.Modifier.isPrivate(getter.getModifiers())) {
+                return null;
+            }
+            if (!appendRule(body, info.optEnum, info.operatorNum, ValueType.of(getter.getReturnType()),
+                    getter.getName(), info.innerMsg, i, messages, constants)) {
+                return null;
+            }
+        }
+        body.append("return null;\n}");
+        try {
+            return makeClass(type, body.toString(), messages.toArray(new String[0]), constants.toArray(new String[0]));
+        } catch (Exception | LinkageError e) {
+            // usually the class can not be defined next to the param type, e.g. in a module or a foreign class loader
+            if (FAILURE_LOGGED.compareAndSet(false, true)) {
+                LOG.info("could not generate validator for {}, its rules are checked one by one: {}", method, e.toString());
+            }
+            LOG.debug("could not generate validator for {}", method, e);
+            return null;
+        }
+    }
+
+    /**
+     * append the statements checking a rule, shared with the annotation processor
+     *
+     * @param body        body of validate method, the value object is held by variable vo
+     * @param optEnum     operator
+     * @param operatorNum operand
+     * @param type        return type of the getter
+     * @param getter      name of the getter
+     * @param message     message returned when the rule fails
+     * @param i           index of the rule
+     * @param messages    messages of the class, referenced by array m
+     * @param constants   string constants of the class, referenced by array c
+     * @return false if the rule can not be generated
+     */
+    static boolean appendRule(StringBuilder body, Operator optEnum, String operatorNum, ValueType type, String getter,
+                              String message, int i, List<String> messages, List<String> constants) {
+        String value = "v" + i;
+        String condition = failCondition(optEnum, operatorNum, type, value, constants);
+        if (condition == null) {
+            return false;
+        }
+        body.append(type.declaredName()).append(" ").append(value)
+                .append(" = vo.").append(getter).append("();\n");
+        body.append("if (").append(condition).append(") return m[").append(messages.size()).append("];\n");
+        messages.add(message);
+        return true;
+    }
+
+    /**
+     * build the condition on which the rule fails, following the operators of CheckEngine
+     *
+     * @param optEnum     operator
+     * @param operatorNum operand
+     * @param type        type of the getter
+     * @param value       variable holding the value
+     * @param constants   string constants of the class
+     * @return condition source, or null if the type is not supported
+     */
+    private static String failCondition(Operator optEnum, String operatorNum, ValueType type, String value, List<String> constants) {
+        if (!GENERATED.contains(optEnum)) {
+            return null;
+        }
+        if (optEnum == Operator.NOT_NULL) {
+            if (type.primitive) {
+                return "false";
+            }
+            if (type.is(String.class)) {
+                return value + " == null || " + value + ".length() == 0";
+            }
+            if (type.collection) {
+                return value + " == null || " + value + ".isEmpty()";
+            }
+            return value + " == null"
+                    + " || (" + value + " instanceof String && ((String) " + value + ").length() == 0)"
+                    + " || (" + value + " instanceof java.util.Collection && ((java.util.Collection) " + value + ").isEmpty())";
+        }
+        String opt = optEnum.value;
+        String nullCheck = type.primitive ? "" : value + " == null || ";
+        ValuePredicates.Operand num = ValuePredicates.Operand.parse(operatorNum);
+        boolean notEqual = optEnum == Operator.NOT_EQUAL;
+        if (type.is(String.class) && notEqual) {
+            constants.add(operatorNum);
+            return value + " == null || " + value + ".equals(c[" + (constants.size() - 1) + "])";
+        }
+        if (num == null) {
+            // only != accepts a non numeric operand, numbers are never equal to it
+            return notEqual ? (type.primitive ? "false" : value + " == null") : null;
+        }
+        String integral = null;
+        if (type.is(String.class)) {
+            integral = value + ".length()";
+        } else if (type.collection) {
+            integral = value + ".size()";
+        } else if (type.is(Integer.class, int.class)) {
+            integral = unbox(type, value, "intValue");
+        } else if (type.is(Long.class, long.class)) {
+            integral = unbox(type, value, "longValue");
+        } else if (type.is(Short.class, short.class)) {
+            integral = unbox(type, value, "shortValue");
+        }
+        if (integral != null) {
+            String operand = num.integral ? num.longValue + "L" : literal(num.doubleValue);
+            if (operand == null) {
+                return null;
+            }
+            String cast = num.integral ? "(long) " : "(double) ";
+            return nullCheck + "!(" + cast + integral + " " + opt + " " + operand + ")";
+        }
+        if (type.is(Float.class, float.class)) {
+            if (!Float.isFinite(num.floatValue)) {
+                return null;
+            }
+            if (notEqual) {
+                return nullCheck + "Float.floatToIntBits(" + unbox(type, value, "floatValue") + ") == "
+                        + Float.floatToIntBits(num.floatValue);
+            }
+            return nullCheck + "!(" + unbox(type, value, "floatValue") + " " + opt + " " + num.floatValue + "F)";
+        }
+        if (type.is(Double.class, double.class)) {
+            if (notEqual) {
+                return nullCheck + "Double.doubleToLongBits(" + unbox(type, value, "doubleValue") + ") == "
+                        + Double.doubleToLongBits(num.doubleValue) + "L";
+            }
+            String operand = literal(num.doubleValue);
+            return operand == null ? null : nullCheck + "!(" + unbox(type, value, "doubleValue") + " " + opt + " " + operand + ")";
+        }
+        return null;
+    }
+
+    private static String literal(double value) {
+        return Double.isFinite(value) ? String.valueOf(value) : null;
+    }
+
+    private static String unbox(ValueType type, String value, String method) {
+        return type.primitive ? value : value + "." + method + "()";
+    }
+
+    /**
+     * return type of a getter, described by name so that it can come from reflection or from the annotation processor
+     */
+    static final class ValueType {
+        /**
+         * qualified name, as written in source
+         */
+        final String name;
+        final boolean primitive;
+        final boolean collection;
+        final boolean number;
+
+        ValueType(String name, boolean primitive, boolean collection, boolean number) {
+            this.name = name;
+            this.primitive = primitive;
+            this.collection = collection;
+            this.number = number;
+        }
+
+        static ValueType of(Class<?> type) {
+            return new ValueType(type.getName(), type.isPrimitive(), Collection.class.isAssignableFrom(type),
+                    Number.class.isAssignableFrom(type));
+        }
+
+        boolean is(Class<?>... types) {
+            for (Class<?> type : types) {
+                if (type.getName().equals(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return type of the local variable holding the value
+         */
+        String declaredName() {
+            return primitive || is(String.class) || collection || number ? name : "Object";
+        }
+    }
+
+    /**
+     * make the validator class in the package of the param type
+     *
+     * @param type      param type
+     * @param body      body of validate method
+     * @param messages  error messages
+     * @param constants string constants
+     * @return validator instance
+     * @throws Exception failed to generate
+     */
+    private static CheckValidator makeClass(Class<?> type, String body, String[] messages, String[] constants) throws Exception {
+        ClassPool pool = new ClassPool(true);
+        pool.appendClassPath(new LoaderClassPath(type.getClassLoader()));
+        pool.appendClassPath(new ClassClassPath(CheckValidator.class));
+        CtClass cc = pool.makeClass(type.getName() + "$$CheckValidator$$" + COUNTER.incrementAndGet());
+        cc.addInterface(pool.get(CheckValidator.class.getName()));
+        cc.addField(CtField.make("private String[] m;", cc));
+        cc.addField(CtField.make("private String[] c;", cc));
+        CtClass array = pool.get(String[].class.getName());
+        cc.addConstructor(CtNewConstructor.make(new CtClass[]{array, array}, new CtClass[0], "{ this.m = $1; this.c = $2; }", cc));
+        cc.addMethod(CtNewMethod.make("public String validate(Object[] arguments) " + body, cc));
+        Class<?> clazz = cc.toClass(type);
+        cc.detach();
+        return (CheckValidator) clazz.getConstructor(String[].class, String[].class).newInstance(messages, constants);
+    }
+
+}
@@ -0,0 +1,36 @@
+package cn.ciphermagic.common.checker;
+
+import java.lang.reflect.Method;
+
+/**
+ * metrics SPI of the checker, called on the hot path so implementations must be cheap and thread-safe.
+ * <p>
+ * Metrics are disabled when no implementation is set, which costs a single null check per call.
+ *
+ * @author CipherCui
+ * @see InMemoryCheckerMetrics
+ * @see MicrometerCheckerMetrics
+ */
+public interface CheckerMetrics {
+
+    /**
+     * record a check of all rules of a method
+     *
+     * @param method checked method
+     * @param nanos  time spent checking
+     * @param passed whether the arguments are valid
+     */
+    void recordCheck(Method method, long nanos, boolean passed);
+
+    /**
+     * record the evaluation of a rule, not called for methods checked by a generated validator
+     *
+     * @param method checked method
+     * @param rule   rule as declared
+     * @param spel   whether the rule is a spel expression
+     * @param nanos  time spent evaluating
+     * @param passed whether the rule passed
+     */
+    void recordRule(Method method, String rule, boolean spel, long nanos, boolean passed);
+
+}
@@ -0,0 +1,125 @@
+package cn.ciphermagic.common.checker;
+
+import org.aopalliance.aop.Advice;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * precompile the rules of every advised @Check method when the context is refreshed,
+ * so that the first call does not pay for parsing and invalid rules fail the startup.
+ * Only the plans are built, no rule is evaluated: getters and predicates are warmed up by the real calls.
+ * <p>
+ * Register it as a bean next to the advisor created by {@link CheckerInterceptor#checkAdvisor(CheckerInterceptor)}
+ * or the {@link Checker} aspect. Beans woven by AspectJ itself, without a spring proxy, are not precompiled.
+ *
+ * @author CipherCui
+ */
+public class CheckerPrecompiler implements ApplicationListener<ContextRefreshedEvent> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CheckerPrecompiler.class);
+
+    private boolean failOnError = true;
+
+    /**
+     * Fail the startup when a rule is invalid, true by default. Otherwise invalid rules are logged at warn level and
+     * still fail at call time.
+     *
+     * @param failOnError whether to fail
+     */
+    public void setFailOnError(boolean failOnError) {
+        this.failOnError = failOnError;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        ApplicationContext context = event.getApplicationContext();
+        if (!(context instanceof ConfigurableApplicationContext)) {
+            return;
+        }
+        ConfigurableListableBeanFactory beanFactory = ((ConfigurableApplicationContext) context).getBeanFactory();
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            // only beans already created, lazy beans are compiled on their first call
+            Object bean = beanFactory.getSingleton(name);
+            if (bean instanceof Advised) {
+                precompile(name, (Advised) bean);
+            }
+        }
+    }
+
+    private void precompile(String name, Advised advised) {
+        Class<?> targetClass = AopUtils.getTargetClass(advised);
+        for (Advisor advisor : advised.getAdvisors()) {
+            CheckerSupport checker = getChecker(advisor.getAdvice());
+            if (checker == null || !(advisor instanceof PointcutAdvisor)) {
+                continue;
+            }
+            PointcutAdvisor pointcutAdvisor = (PointcutAdvisor) advisor;
+            for (Method method : getInvokedMethods(advised, targetClass)) {
+                if (!pointcutAdvisor.getPointcut().getMethodMatcher().matches(method, targetClass)) {
+                    continue;
+                }
+                try {
+                    checker.precompile(method, targetClass);
+                } catch (RuntimeException e) {
+                    if (failOnError) {
+                        throw new IllegalStateException("invalid @Check rules on " + method + " of bean '" + name + "'", e);
+                    }
+                    LOG.warn("invalid @Check rules on {} of bean '{}'", method, name, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the interceptor, or the {@link Checker} aspect behind an aspectj advice, null for any other advice
+     */
+    private CheckerSupport getChecker(Advice advice) {
+        if (advice instanceof CheckerInterceptor) {
+            return (CheckerInterceptor) advice;
+        }
+        if (advice instanceof AbstractAspectJAdvice) {
+            Object aspect = ((AbstractAspectJAdvice) advice).getAspectInstanceFactory().getAspectInstance();
+            if (aspect instanceof Checker) {
+                return (Checker) aspect;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return methods as seen by the interceptor: interface methods for jdk proxies, class methods otherwise
+     */
+    private List<Method> getInvokedMethods(Advised advised, Class<?> targetClass) {
+        List<Method> methods = new ArrayList<>();
+        if (advised.isProxyTargetClass() || advised.getProxiedInterfaces().length == 0) {
+            for (Method method : ReflectionUtils.getUniqueDeclaredMethods(targetClass, ReflectionUtils.USER_DECLARED_METHODS)) {
+                if (method.getDeclaringClass() != Object.class) {
+                    methods.add(method);
+                }
+            }
+        } else {
+            for (Class<?> type : advised.getProxiedInterfaces()) {
+                for (Method method : type.getMethods()) {
+                    methods.add(method);
+                }
+            }
+        }
+        return methods;
+    }
+
+}
@@ -0,0 +1,320 @@
+package cn.ciphermagic.common.checker;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.expression.spel.SpelCompilerMode;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * options shared by {@link Checker} and {@link CheckerInterceptor}, both delegating to the same engine
+ *
+ * @author CipherCui
+ */
+public abstract class CheckerSupport {
+
+    final CheckEngine engine = new CheckEngine();
+
+    CheckerSupport() {
+    }
+
+    /**
+     * build and cache the plan of the method, so that rules are parsed and spel expressions are prepared before the first call
+     *
+     * @param method      method as invoked through the proxy
+     * @param targetClass class of the target
+     * @throws IllegalArgumentException if a rule of the method is invalid
+     */
+    public void precompile(Method method, Class<?> targetClass) {
+        engine.precompile(method, targetClass);
+    }
+
+    /**
+     * Action performed when check fails. For methods returning CompletableFuture, Mono, Flux or another reactive type,
+     * the result is adapted to the return type: a Throwable (or an exception thrown by the action) becomes an error
+     * signal, a CompletionStage or a reactive type is converted, any other value is emitted
+     *
+     * @param unsuccessful lambda of the action
+     */
+    public void setUnsuccessful(Function<String, Object> unsuccessful) {
+        engine.setUnsuccessful(unsuccessful);
+    }
+
+    /**
+     * Compile spel rules to bytecode, OFF by default
+     *
+     * @param spelCompilerMode IMMEDIATE or MIXED to compile, OFF to interpret
+     */
+    public void setSpelCompilerMode(SpelCompilerMode spelCompilerMode) {
+        engine.setSpelCompilerMode(spelCompilerMode);
+    }
+
+    /**
+     * How spel rules see the method arguments, STANDARD by default
+     *
+     * @param spelContextMode context mode
+     * @see SpelContextMode
+     */
+    public void setSpelContextMode(SpelContextMode spelContextMode) {
+        engine.setSpelContextMode(spelContextMode);
+    }
+
+    /**
+     * Evaluate cheap and often failing rules first, false by default.
+     * Rules start ordered by estimated cost (not null, then comparisons, then spel) and are promoted by their
+     * observed failure rate. The message is still the one of the first failing rule in declaration order.
+     *
+     * @param adaptiveOrdering whether to reorder rules
+     */
+    public void setAdaptiveOrdering(boolean adaptiveOrdering) {
+        engine.setAdaptiveOrdering(adaptiveOrdering);
+    }
+
+    /**
+     * Action performed when elements fail the rules of @Check(each = true), unsuccessful is called with
+     * the message of the report if not set
+     *
+     * @param eachUnsuccessful lambda of the action
+     */
+    public void setEachUnsuccessful(Function<EachCheckReport, Object> eachUnsuccessful) {
+        engine.setEachUnsuccessful(eachUnsuccessful);
+    }
+
+    /**
+     * Collections or arrays with at least this many elements are checked on the fork-join pool, 8192 by default
+     *
+     * @param eachParallelThreshold size threshold
+     */
+    public void setEachParallelThreshold(int eachParallelThreshold) {
+        engine.setEachParallelThreshold(eachParallelThreshold);
+    }
+
+    /**
+     * Number of element messages kept in the report, 10 by default
+     *
+     * @param eachMessageLimit message limit
+     */
+    public void setEachMessageLimit(int eachMessageLimit) {
+        engine.setEachMessageLimit(eachMessageLimit);
+    }
+
+    /**
+     * Metrics of checks and rules, disabled when null
+     *
+     * @param metrics metrics implementation
+     * @see InMemoryCheckerMetrics
+     * @see MicrometerCheckerMetrics
+     */
+    public void setMetrics(CheckerMetrics metrics) {
+        engine.setMetrics(metrics);
+    }
+
+    /**
+     * Generate a validator class by javassist for each method whose rules allow it, false by default.
+     * Methods with spel or dynamic rules keep the interpretive check, so do methods whose validator class can not be
+     * defined, the first of them is logged at info level.
+     *
+     * @param generateValidators whether to generate validators
+     */
+    public void setGenerateValidators(boolean generateValidators) {
+        engine.setGenerateValidators(generateValidators);
+    }
+
+    /**
+     * Use the validators generated at build time by {@link CheckProcessor} when the project runs it, true by default
+     *
+     * @param useGeneratedValidators whether to use the validators of the processor
+     */
+    public void setUseGeneratedValidators(boolean useGeneratedValidators) {
+        engine.setUseGeneratedValidators(useGeneratedValidators);
+    }
+
+    /**
+     * Evaluate the spel rules of a method concurrently on the executor when it has more than one,
+     * so that rules calling beans or doing io wait in parallel. Disabled when null, the default.
+     * Requires a spel timeout, and methods returning CompletableFuture or reactive types are still
+     * checked sequentially so that the calling thread never waits for the executor.
+     * A rule rejected by the executor, or beyond the bound of {@link #setConcurrentSpel(int)}, runs on the
+     * calling thread and is not bounded by the timeout
+     *
+     * @param spelExecutor executor of the spel rules
+     */
+    public void setSpelExecutor(Executor spelExecutor) {
+        engine.setSpelExecutor(spelExecutor);
+    }
+
+    /**
+     * Evaluate the spel rules of a method concurrently, at most parallelism rules at once, see {@link #setSpelExecutor(Executor)}.
+     * Virtual threads are used when the runtime has them, a pool of daemon threads otherwise
+     *
+     * @param parallelism max spel rules running at once
+     */
+    public void setConcurrentSpel(int parallelism) {
+        engine.setSpelExecutor(SpelExecutors.newBoundedExecutor(parallelism));
+    }
+
+    /**
+     * Time allowed to each spel rule evaluated concurrently, a rule running longer fails.
+     * Spel rules are evaluated sequentially until it is set
+     *
+     * @param timeout timeout, positive
+     * @param unit    unit of the timeout
+     */
+    public void setSpelTimeout(long timeout, TimeUnit unit) {
+        engine.setSpelTimeout(timeout, unit);
+    }
+
+    /**
+     * Resolve bean references such as {@code @repo.exists(#id)} in spel rules. Not supported by READ_ONLY context mode
+     *
+     * @param beanFactory bean factory
+     */
+    public void setBeanFactory(BeanFactory beanFactory) {
+        engine.setBeanResolver(beanFactory == null ? null : new BeanFactoryResolver(beanFactory));
+    }
+
+    /**
+     * Mode of the methods whose @Check does not set one, ENFORCE by default
+     *
+     * @param mode ENFORCE, SHADOW or SAMPLED
+     * @see CheckMode
+     */
+    public void setMode(CheckMode mode) {
+        engine.setMode(mode);
+    }
+
+    /**
+     * Fraction of calls checked in SAMPLED mode when @Check does not set one, 0.1 by default
+     *
+     * @param sampleRate rate from 0 to 1
+     */
+    public void setSampleRate(double sampleRate) {
+        engine.setSampleRate(sampleRate);
+    }
+
+    /**
+     * Whether each spel rule currently runs compiled or interpreted
+     *
+     * @return "method rule" to true if compiled
+     */
+    public Map<String, Boolean> getSpelCompilationReport() {
+        return engine.getSpelCompilationReport();
+    }
+
+    /**
+     * Stats of the result caches of spel rules, see {@link CheckCache}
+     *
+     * @return "method rule" to the stats of its cache
+     */
+    public Map<String, SpelCacheStats> getSpelCacheStats() {
+        return engine.getSpelCacheStats();
+    }
+
+    /**
+     * builder of the options shared by the checkers
+     *
+     * @param <T> type of the checker
+     * @param <B> type of the builder
+     */
+    public abstract static class Builder<T extends CheckerSupport, B extends Builder<T, B>> {
+        protected final T checker;
+
+        Builder(T checker) {
+            this.checker = checker;
+        }
+
+        @SuppressWarnings("unchecked")
+        private B self() {
+            return (B) this;
+        }
+
+        public B unsuccessful(Function<String, Object> unsuccessful) {
+            checker.setUnsuccessful(unsuccessful);
+            return self();
+        }
+
+        public B spelCompilerMode(SpelCompilerMode spelCompilerMode) {
+            checker.setSpelCompilerMode(spelCompilerMode);
+            return self();
+        }
+
+        public B spelContextMode(SpelContextMode spelContextMode) {
+            checker.setSpelContextMode(spelContextMode);
+            return self();
+        }
+
+        public B adaptiveOrdering(boolean adaptiveOrdering) {
+            checker.setAdaptiveOrdering(adaptiveOrdering);
+            return self();
+        }
+
+        public B eachUnsuccessful(Function<EachCheckReport, Object> eachUnsuccessful) {
+            checker.setEachUnsuccessful(eachUnsuccessful);
+            return self();
+        }
+
+        public B eachParallelThreshold(int eachParallelThreshold) {
+            checker.setEachParallelThreshold(eachParallelThreshold);
+            return self();
+        }
+
+        public B eachMessageLimit(int eachMessageLimit) {
+            checker.setEachMessageLimit(eachMessageLimit);
+            return self();
+        }
+
+        public B metrics(CheckerMetrics metrics) {
+            checker.setMetrics(metrics);
+            return self();
+        }
+
+        public B spelExecutor(Executor spelExecutor) {
+            checker.setSpelExecutor(spelExecutor);
+            return self();
+        }
+
+        public B concurrentSpel(int parallelism) {
+            checker.setConcurrentSpel(parallelism);
+            return self();
+        }
+
+        public B spelTimeout(long timeout, TimeUnit unit) {
+            checker.setSpelTimeout(timeout, unit);
+            return self();
+        }
+
+        public B beanFactory(BeanFactory beanFactory) {
+            checker.setBeanFactory(beanFactory);
+            return self();
+        }
+
+        public B generateValidators(boolean generateValidators) {
+            checker.setGenerateValidators(generateValidators);
+            return self();
+        }
+
+        public B useGeneratedValidators(boolean useGeneratedValidators) {
+            checker.setUseGeneratedValidators(useGeneratedValidators);
+            return self();
+        }
+
+        public B mode(CheckMode mode) {
+            checker.setMode(mode);
+            return self();
+        }
+
+        public B sampleRate(double sampleRate) {
+            checker.setSampleRate(sampleRate);
+            return self();
+        }
+
+        public T build() {
+            return checker;
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+package cn.ciphermagic.common.checker;
+
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.util.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * versioned registry of the dynamic field validation rules.
+ * <p>
+ * Rules are parsed by the updating thread, and the whole registry is published as an immutable snapshot with a
+ * single atomic swap, so readers never see half-applied rule sets. Rule sets of untouched keys keep their identity
+ * across snapshots, which lets cached plans tell whether their own keys changed.
+ *
+ * @author CipherCui
+ */
+final class DynamicRules {
+
+    private static final ExpressionParser PARSER = new SpelExpressionParser();
+    private static final AtomicReference<Snapshot> SNAPSHOT = new AtomicReference<>(new Snapshot(0L, Collections.emptyMap()));
+
+    private DynamicRules() {
+    }
+
+    /**
+     * @return current snapshot
+     */
+    static Snapshot snapshot() {
+        return SNAPSHOT.get();
+    }
+
+    /**
+     * add or replace the rules of the given keys, in one atomic swap
+     *
+     * @param rules key to rules, a null value removes the key
+     * @return version of the published snapshot
+     */
+    static long update(Map<String, String[]> rules) {
+        Map<String, List<RuleSpec>> compiled = compile(rules);
+        Snapshot current;
+        Snapshot next;
+        do {
+            current = SNAPSHOT.get();
+            Map<String, RuleSet> sets = new HashMap<>(current.sets);
+            long version = current.version + 1;
+            compiled.forEach((key, specs) -> {
+                if (specs == null) {
+                    sets.remove(key);
+                } else {
+                    sets.put(key, new RuleSet(specs));
+                }
+            });
+            next = new Snapshot(version, sets);
+        } while (!SNAPSHOT.compareAndSet(current, next));
+        return next.version;
+    }
+
+    /**
+     * replace the whole registry, in one atomic swap
+     *
+     * @param rules key to rules
+     * @return version of the published snapshot
+     */
+    static long replace(Map<String, String[]> rules) {
+        Map<String, List<RuleSpec>> compiled = compile(rules);
+        Snapshot current;
+        Snapshot next;
+        do {
+            current = SNAPSHOT.get();
+            Map<String, RuleSet> sets = new HashMap<>();
+            long version = current.version + 1;
+            compiled.forEach((key, specs) -> {
+                if (specs != null) {
+                    sets.put(key, new RuleSet(specs));
+                }
+            });
+            next = new Snapshot(version, sets);
+        } while (!SNAPSHOT.compareAndSet(current, next));
+        return next.version;
+    }
+
+    /**
+     * parse all rules before publishing, so malformed rules are rejected by the updater
+     *
+     * @param rules key to rules
+     * @return key to parsed rules
+     */
+    private static Map<String, List<RuleSpec>> compile(Map<String, String[]> rules) {
+        Map<String, List<RuleSpec>> compiled = new HashMap<>();
+        rules.forEach((key, values) -> {
+            if (StringUtils.isEmpty(key)) {
+                throw new IllegalArgumentException("dynamic field key can not be empty");
+            }
+            if (values == null) {
+                compiled.put(key, null);
+                return;
+            }
+            List<RuleSpec> specs = new ArrayList<>();
+            for (String value : values) {
+                if (StringUtils.isEmpty(value)) {
+                    continue;
+                }
+                // spel is parsed once here, plans rebuilt with the snapshot reuse the expression
+                specs.add(RuleSpec.parse(value, PARSER));
+            }
+            compiled.put(key, Collections.unmodifiableList(specs));
+        });
+        return compiled;
+    }
+
+    /**
+     * immutable view of the registry
+     */
+    static final class Snapshot {
+        final long version;
+        private final Map<String, RuleSet> sets;
+
+        private Snapshot(long version, Map<String, RuleSet> sets) {
+            this.version = version;
+            this.sets = sets;
+        }
+
+        /**
+         * @param key key of dynamic field
+         * @return rule set, or null if absent
+         */
+        RuleSet get(String key) {
+            return sets.get(key);
+        }
+    }
+
+    /**
+     * parsed rules of a key, a new instance on each update of the key
+     */
+    static final class RuleSet {
+        final List<RuleSpec> specs;
+
+        private RuleSet(List<RuleSpec> specs) {
+            this.specs = specs;
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+package cn.ciphermagic.common.checker;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * result of checking each element of a collection or array with @Check(each = true)
+ *
+ * @author CipherCui
+ */
+public final class EachCheckReport {
+
+    private final int size;
+    private final BitSet failedIndexes;
+    private final List<String> messages;
+
+    EachCheckReport(int size, BitSet failedIndexes, List<String> messages) {
+        this.size = size;
+        this.failedIndexes = failedIndexes;
+        this.messages = Collections.unmodifiableList(messages);
+    }
+
+    /**
+     * @return number of checked elements
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return indexes of the invalid elements
+     */
+    public BitSet getFailedIndexes() {
+        return (BitSet) failedIndexes.clone();
+    }
+
+    /**
+     * @return number of invalid elements
+     */
+    public int getFailedCount() {
+        return failedIndexes.cardinality();
+    }
+
+    /**
+     * @return messages of the first invalid elements, prefixed with their index
+     */
+    public List<String> getMessages() {
+        return messages;
+    }
+
+    /**
+     * @return joined messages of the first invalid elements
+     */
+    public String getMessage() {
+        String message = String.join("; ", messages);
+        int more = getFailedCount() - messages.size();
+        return more > 0 ? message + "; and " + more + " more" : message;
+    }
+
+}
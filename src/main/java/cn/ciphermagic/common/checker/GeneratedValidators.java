@@ -0,0 +1,84 @@
+package cn.ciphermagic.common.checker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * lookup of the validators generated by {@link CheckProcessor} at compile time
+ *
+ * @author CipherCui
+ */
+final class GeneratedValidators {
+
+    /**
+     * index of the generated validators, one line per method: key=class name
+     */
+    static final String INDEX = "META-INF/spring-tools/check-validators";
+
+    private static final Logger LOG = LoggerFactory.getLogger(GeneratedValidators.class);
+    private static final Map<ClassLoader, Properties> INDEXES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private GeneratedValidators() {
+    }
+
+    /**
+     * find the generated validator of the method
+     *
+     * @param method method
+     * @return validator, or null if none was generated
+     */
+    static CheckValidator find(Method method) {
+        ClassLoader loader = method.getDeclaringClass().getClassLoader();
+        if (loader == null) {
+            return null;
+        }
+        String className = INDEXES.computeIfAbsent(loader, GeneratedValidators::load).getProperty(key(method));
+        if (className == null) {
+            return null;
+        }
+        try {
+            return (CheckValidator) Class.forName(className, true, loader).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            LOG.warn("could not load generated validator {} of {}", className, method, e);
+            return null;
+        }
+    }
+
+    /**
+     * @return key of the method in the index
+     */
+    static String key(String declaringClass, String name, List<String> parameterTypes) {
+        return declaringClass + "#" + name + "(" + String.join(",", parameterTypes) + ")";
+    }
+
+    private static String key(Method method) {
+        List<String> parameterTypes = new ArrayList<>();
+        for (Class<?> type : method.getParameterTypes()) {
+            parameterTypes.add(type.getTypeName());
+        }
+        return key(method.getDeclaringClass().getName(), method.getName(), parameterTypes);
+    }
+
+    private static Properties load(ClassLoader loader) {
+        Properties index = new Properties();
+        try {
+            Enumeration<URL> urls = loader.getResources(INDEX);
+            while (urls.hasMoreElements()) {
+                try (InputStream in = urls.nextElement().openStream()) {
+                    index.load(in);
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("could not load {}", INDEX, e);
+        }
+        return index;
+    }
+
+}
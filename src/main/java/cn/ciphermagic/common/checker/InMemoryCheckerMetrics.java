@@ -0,0 +1,154 @@
+package cn.ciphermagic.common.checker;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * metrics kept in memory with striped counters and lock-free histograms
+ *
+ * @author CipherCui
+ */
+public class InMemoryCheckerMetrics implements CheckerMetrics {
+
+    private final Map<Method, MethodStats> methods = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordCheck(Method method, long nanos, boolean passed) {
+        MethodStats stats = getOrCreate(method);
+        stats.latency.record(nanos);
+        if (!passed) {
+            stats.failures.increment();
+        }
+    }
+
+    @Override
+    public void recordRule(Method method, String rule, boolean spel, long nanos, boolean passed) {
+        MethodStats stats = getOrCreate(method);
+        RuleStats ruleStats = stats.rules.computeIfAbsent(rule, key -> new RuleStats(spel));
+        ruleStats.evaluations.increment();
+        ruleStats.nanos.add(nanos);
+        if (!passed) {
+            ruleStats.failures.increment();
+        }
+        (spel ? stats.spelNanos : stats.operatorNanos).add(nanos);
+    }
+
+    /**
+     * @return stats of every checked method
+     */
+    public Map<Method, MethodStats> getMethods() {
+        return Collections.unmodifiableMap(methods);
+    }
+
+    /**
+     * @param method method
+     * @return stats of the method, null if it was never checked
+     */
+    public MethodStats getMethod(Method method) {
+        return methods.get(method);
+    }
+
+    /**
+     * clear all stats
+     */
+    public void reset() {
+        methods.clear();
+    }
+
+    private MethodStats getOrCreate(Method method) {
+        MethodStats stats = methods.get(method);
+        return stats != null ? stats : methods.computeIfAbsent(method, key -> new MethodStats());
+    }
+
+    /**
+     * stats of a method
+     */
+    public static final class MethodStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder spelNanos = new LongAdder();
+        private final LongAdder operatorNanos = new LongAdder();
+        private final Map<String, RuleStats> rules = new ConcurrentHashMap<>();
+
+        /**
+         * @return latency of checking all rules
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * @return number of rejected calls
+         */
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * @return time spent in spel rules in nanoseconds
+         */
+        public long getSpelNanos() {
+            return spelNanos.sum();
+        }
+
+        /**
+         * @return time spent in operator rules in nanoseconds
+         */
+        public long getOperatorNanos() {
+            return operatorNanos.sum();
+        }
+
+        /**
+         * @return stats of each rule
+         */
+        public Map<String, RuleStats> getRules() {
+            return Collections.unmodifiableMap(rules);
+        }
+    }
+
+    /**
+     * stats of a rule
+     */
+    public static final class RuleStats {
+        private final boolean spel;
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        private RuleStats(boolean spel) {
+            this.spel = spel;
+        }
+
+        /**
+         * @return whether the rule is a spel expression
+         */
+        public boolean isSpel() {
+            return spel;
+        }
+
+        /**
+         * @return number of evaluations
+         */
+        public long getEvaluations() {
+            return evaluations.sum();
+        }
+
+        /**
+         * @return number of failures
+         */
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * @return time spent evaluating in nanoseconds
+         */
+        public long getNanos() {
+            return nanos.sum();
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package cn.ciphermagic.common.checker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * metrics published to a micrometer registry, requires micrometer-core on the classpath.
+ * <p>
+ * Meters: {@code checker.check} timer tagged with method and outcome,
+ * {@code checker.rule} timer and {@code checker.rule.failures} counter tagged with method, rule and type.
+ *
+ * @author CipherCui
+ */
+public class MicrometerCheckerMetrics implements CheckerMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<Method, Timer[]> checkTimers = new ConcurrentHashMap<>();
+    private final Map<Method, Map<String, Meters>> ruleMeters = new ConcurrentHashMap<>();
+
+    public MicrometerCheckerMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void recordCheck(Method method, long nanos, boolean passed) {
+        Timer[] timers = checkTimers.computeIfAbsent(method, key -> new Timer[]{
+                checkTimer(key, "failure"), checkTimer(key, "success")
+        });
+        timers[passed ? 1 : 0].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordRule(Method method, String rule, boolean spel, long nanos, boolean passed) {
+        Meters meters = ruleMeters.computeIfAbsent(method, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(rule, key -> new Meters(method, key, spel));
+        meters.timer.record(nanos, TimeUnit.NANOSECONDS);
+        if (!passed) {
+            meters.failures.increment();
+        }
+    }
+
+    private Timer checkTimer(Method method, String outcome) {
+        return Timer.builder("checker.check")
+                .tag("method", name(method))
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static String name(Method method) {
+        return method.getDeclaringClass().getName() + "." + method.getName();
+    }
+
+    private class Meters {
+        private final Timer timer;
+        private final Counter failures;
+
+        private Meters(Method method, String rule, boolean spel) {
+            String type = spel ? "spel" : "operator";
+            this.timer = Timer.builder("checker.rule")
+                    .tag("method", name(method)).tag("rule", rule).tag("type", type)
+                    .register(registry);
+            this.failures = Counter.builder("checker.rule.failures")
+                    .tag("method", name(method)).tag("rule", rule).tag("type", type)
+                    .register(registry);
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package cn.ciphermagic.common.checker;
+
+import java.util.function.Function;
+
+/**
+ * enum of operator
+ *
+ * @author CipherCui
+ */
+enum Operator {
+    /**
+     * spel expression
+     */
+    SPEL("match spel expression", 10, null, false),
+    /**
+     * GreaterThan
+     */
+    GREATER_THAN(">", 2, ValuePredicates::greaterThan, true),
+    /**
+     * GreaterThanEqual
+     */
+    GREATER_THAN_EQUAL(">=", 2, ValuePredicates::greaterThanEqual, true),
+    /**
+     * LessThan
+     */
+    LESS_THAN("<", 2, ValuePredicates::lessThan, true),
+    /**
+     * LessThanEqual
+     */
+    LESS_THAN_EQUAL("<=", 2, ValuePredicates::lessThanEqual, true),
+    /**
+     * NotEqual
+     */
+    NOT_EQUAL("!=", 2, ValuePredicates::notEqual, true),
+    /**
+     * NotNull
+     */
+    NOT_NULL("not null", 1, ValuePredicates::notNull, false),
+    /**
+     * Matches a regular expression
+     */
+    MATCHES("~=", 3, ValuePredicates::matches, true),
+    /**
+     * In a list of values
+     */
+    IN("in", 2, ValuePredicates::in, true),
+    /**
+     * Between two numbers, inclusive
+     */
+    BETWEEN("between", 2, ValuePredicates::between, true),
+    /**
+     * operator registered in CheckOperators
+     */
+    CUSTOM("custom", 2, null, false);
+
+    final String value;
+    /**
+     * estimated relative cost of an evaluation
+     */
+    final int cost;
+    final Function<String, ValuePredicate> compiler;
+    /**
+     * whether the value is the symbol written in rules
+     */
+    final boolean symbol;
+
+    Operator(String value, int cost, Function<String, ValuePredicate> compiler, boolean symbol) {
+        this.value = value;
+        this.cost = cost;
+        this.compiler = compiler;
+        this.symbol = symbol;
+    }
+}
@@ -0,0 +1,91 @@
+package cn.ciphermagic.common.checker;
+
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * getter of a field, resolved once per concrete class and bound to a method handle.
+ * Without a getter, {@code size} of collections, maps and arrays and {@code length} of strings and arrays are
+ * supported as well.
+ *
+ * @author CipherCui
+ */
+final class PropertyGetter extends ClassValue<Function<Object, Object>> {
+
+    private static final Function<Object, Object> MISSING = obj -> null;
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final String field;
+    private final String getterName;
+
+    /**
+     * @param field field name
+     */
+    PropertyGetter(String field) {
+        this.field = field;
+        this.getterName = "get" + StringUtils.capitalize(field);
+    }
+
+    /**
+     * find the getter of the class
+     *
+     * @param clazz class of the object
+     * @return getter, or null if the class has no such getter
+     */
+    Function<Object, Object> find(Class<?> clazz) {
+        Function<Object, Object> getter = get(clazz);
+        return getter == MISSING ? null : getter;
+    }
+
+    @Override
+    protected Function<Object, Object> computeValue(Class<?> clazz) {
+        Method method = ReflectionUtils.findMethod(clazz, getterName);
+        if (method == null) {
+            return findBuiltIn(clazz);
+        }
+        MethodHandle handle;
+        try {
+            ReflectionUtils.makeAccessible(method);
+            handle = MethodHandles.lookup().unreflect(method).asType(GETTER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            // not accessible through method handles, keep the reflective call
+            return obj -> ReflectionUtils.invokeMethod(method, obj);
+        }
+        return obj -> {
+            try {
+                return (Object) handle.invokeExact(obj);
+            } catch (Throwable e) {
+                ReflectionUtils.rethrowRuntimeException(e);
+                return null;
+            }
+        };
+    }
+
+    private Function<Object, Object> findBuiltIn(Class<?> clazz) {
+        if ("size".equals(field)) {
+            if (Collection.class.isAssignableFrom(clazz)) {
+                return obj -> ((Collection<?>) obj).size();
+            }
+            if (Map.class.isAssignableFrom(clazz)) {
+                return obj -> ((Map<?, ?>) obj).size();
+            }
+        }
+        if ("length".equals(field) && CharSequence.class.isAssignableFrom(clazz)) {
+            return obj -> ((CharSequence) obj).length();
+        }
+        if (("size".equals(field) || "length".equals(field)) && clazz.isArray()) {
+            return Array::getLength;
+        }
+        return MISSING;
+    }
+
+}
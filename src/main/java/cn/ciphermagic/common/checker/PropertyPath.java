@@ -0,0 +1,125 @@
+package cn.ciphermagic.common.checker;
+
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * path of a field rule, compiled into a null-safe chain of getters.
+ * <p>
+ * The path may start with an argument selector such as {@code [1]}, the first argument is used otherwise.
+ * Segments are separated by dots, for example {@code [1].address.city} or {@code items.size}.
+ *
+ * @author CipherCui
+ */
+final class PropertyPath {
+
+    /**
+     * returned when a getter of the path does not exist
+     */
+    static final Object MISSING = new Object();
+
+    private static final Pattern SELECTOR = Pattern.compile("^\\[(\\d+)]\\.?");
+
+    /**
+     * index of the argument the path starts from
+     */
+    final int argumentIndex;
+    private final PropertyGetter[] getters;
+
+    private PropertyPath(int argumentIndex, PropertyGetter[] getters) {
+        this.argumentIndex = argumentIndex;
+        this.getters = getters;
+    }
+
+    /**
+     * compile the path
+     *
+     * @param field field path
+     * @return compiled path
+     */
+    static PropertyPath parse(String field) {
+        int argumentIndex = 0;
+        String path = field;
+        Matcher matcher = SELECTOR.matcher(path);
+        if (matcher.find()) {
+            argumentIndex = Integer.parseInt(matcher.group(1));
+            path = path.substring(matcher.end());
+        } else if (path.isEmpty()) {
+            throw new IllegalArgumentException("@Check annotation error: empty field");
+        }
+        if (path.isEmpty()) {
+            return new PropertyPath(argumentIndex, new PropertyGetter[0]);
+        }
+        String[] names = path.split("\\.", -1);
+        PropertyGetter[] getters = new PropertyGetter[names.length];
+        for (int i = 0; i < names.length; i++) {
+            if (!isIdentifier(names[i])) {
+                throw new IllegalArgumentException("@Check annotation error: illegal field " + field);
+            }
+            getters[i] = new PropertyGetter(names[i]);
+        }
+        return new PropertyPath(argumentIndex, getters);
+    }
+
+    /**
+     * get the value of the path
+     *
+     * @param arguments method arguments
+     * @return value, null if an object on the path is null, MISSING if a getter does not exist
+     */
+    Object get(Object[] arguments) {
+        if (argumentIndex >= arguments.length) {
+            return MISSING;
+        }
+        return getFrom(arguments[argumentIndex]);
+    }
+
+    /**
+     * get the value of the path from the given object, ignoring the argument selector
+     *
+     * @param root object the getters start from
+     * @return value, null if an object on the path is null, MISSING if a getter does not exist
+     */
+    Object getFrom(Object root) {
+        Object value = root;
+        for (PropertyGetter getter : getters) {
+            if (value == null) {
+                return null;
+            }
+            Function<Object, Object> function = getter.find(value.getClass());
+            if (function == null) {
+                return MISSING;
+            }
+            value = function.apply(value);
+        }
+        return value;
+    }
+
+    /**
+     * @return number of getters on the path
+     */
+    int depth() {
+        return getters.length;
+    }
+
+    /**
+     * @return true if the path is a single field of the first argument
+     */
+    boolean isSimple() {
+        return argumentIndex == 0 && getters.length == 1;
+    }
+
+    private static boolean isIdentifier(String name) {
+        if (name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isJavaIdentifierPart(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
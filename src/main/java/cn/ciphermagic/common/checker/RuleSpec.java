@@ -0,0 +1,206 @@
+package cn.ciphermagic.common.checker;
+
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.util.StringUtils;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * rule parsed from a field string of @Check, independent of the method it is used on
+ *
+ * @author CipherCui
+ */
+final class RuleSpec {
+
+    private static final String SEPARATOR = ":";
+    private static final char ESCAPE = '\\';
+    private static final Pattern PATH = Pattern.compile("[\\w$.\\[\\]]*");
+
+    /**
+     * field or spel expression
+     */
+    final String field;
+    /**
+     * prompt message set in the rule, empty to use the default message
+     */
+    final String customMsg;
+    /**
+     * enum of operator
+     */
+    final Operator optEnum;
+    /**
+     * symbol of the operator
+     */
+    final String symbol;
+    /**
+     * num of operator
+     */
+    final String operatorNum;
+    /**
+     * getters of the field path, null for spel
+     */
+    final PropertyPath path;
+    /**
+     * compiled operator and operand, null for spel
+     */
+    final ValuePredicate predicate;
+    /**
+     * parsed spel expression, null if the rule is not spel or was parsed without a parser
+     */
+    final SpelExpression expression;
+    /**
+     * estimated relative cost of the operator
+     */
+    private final int operatorCost;
+
+    private RuleSpec(String field, String customMsg, Operator optEnum, String symbol, String operatorNum, CheckOperator custom,
+                     SpelExpression expression) {
+        this.field = field;
+        this.expression = expression;
+        this.customMsg = customMsg;
+        this.optEnum = optEnum;
+        this.symbol = symbol;
+        this.operatorNum = operatorNum;
+        this.path = optEnum == Operator.SPEL ? null : PropertyPath.parse(field);
+        if (optEnum == Operator.SPEL) {
+            this.predicate = null;
+        } else if (custom != null) {
+            this.predicate = custom.compile(operatorNum);
+        } else {
+            this.predicate = optEnum.compiler.apply(operatorNum);
+        }
+        this.operatorCost = custom != null ? custom.getCost() : optEnum.cost;
+    }
+
+    /**
+     * split the error message from a field string. The message follows the last ':', a ':' of the rule
+     * itself that is not followed by a message is escaped as '\:'
+     *
+     * @param fieldStr field string
+     * @return the rule and the message, empty if none
+     */
+    static String[] splitMessage(String fieldStr) {
+        int separator = -1;
+        for (int i = fieldStr.indexOf(SEPARATOR); i >= 0; i = fieldStr.indexOf(SEPARATOR, i + 1)) {
+            if (i == 0 || fieldStr.charAt(i - 1) != ESCAPE) {
+                separator = i;
+            }
+        }
+        if (separator < 0) {
+            return new String[]{unescape(fieldStr.trim()), ""};
+        }
+        String innerMsg = unescape(fieldStr.substring(separator + 1).trim());
+        if (innerMsg.isEmpty()) {
+            throw new IllegalArgumentException("@Check annotation error: " + fieldStr);
+        }
+        return new String[]{unescape(fieldStr.substring(0, separator).trim()), innerMsg};
+    }
+
+    private static String unescape(String str) {
+        return str.replace(ESCAPE + SEPARATOR, SEPARATOR);
+    }
+
+    /**
+     * parse field
+     *
+     * @param fieldStr field string
+     * @return parsed rule
+     */
+    static RuleSpec parse(String fieldStr) {
+        return parse(fieldStr, null);
+    }
+
+    /**
+     * parse field, and its spel expression when a parser is given
+     *
+     * @param fieldStr field string
+     * @param parser   parser of spel rules, null to leave them unparsed
+     * @return parsed rule
+     */
+    static RuleSpec parse(String fieldStr, ExpressionParser parser) {
+        String rule = fieldStr;
+        // parse error message
+        String[] parts = splitMessage(fieldStr);
+        fieldStr = parts[0];
+        String innerMsg = parts[1];
+        // spel expression
+        if (fieldStr.startsWith("#") || fieldStr.startsWith("T(") || fieldStr.startsWith("@")) {
+            SpelExpression expression = null;
+            if (parser != null) {
+                try {
+                    expression = (SpelExpression) parser.parseExpression(fieldStr);
+                } catch (ParseException e) {
+                    throw new IllegalArgumentException("@Check annotation error: " + rule, e);
+                }
+            }
+            return new RuleSpec(fieldStr, innerMsg, Operator.SPEL, Operator.SPEL.value, null, null, expression);
+        }
+        // the field path, then the longest operator symbol and its operand
+        Matcher matcher = PATH.matcher(fieldStr);
+        matcher.lookingAt();
+        String field = matcher.group();
+        String rest = fieldStr.substring(matcher.end()).trim();
+        Operator optEnum = Operator.NOT_NULL;
+        String symbol = Operator.NOT_NULL.value;
+        String operatorNum = null;
+        CheckOperator custom = null;
+        if (!rest.isEmpty()) {
+            symbol = CheckOperators.match(rest);
+            if (symbol == null) {
+                throw new UnknownOperatorException("@Check annotation error: unknown operator in " + rule);
+            }
+            operatorNum = rest.substring(symbol.length()).trim();
+            if (operatorNum.isEmpty()) {
+                throw new IllegalArgumentException("@Check annotation error: " + rule);
+            }
+            optEnum = CheckOperators.builtIn(symbol);
+            if (optEnum == null) {
+                optEnum = Operator.CUSTOM;
+                custom = CheckOperators.registered(symbol);
+                if (custom == null) {
+                    throw new UnknownOperatorException("@Check annotation error: unknown operator in " + rule);
+                }
+            }
+        }
+        try {
+            return new RuleSpec(field, innerMsg, optEnum, symbol, operatorNum, custom, null);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("@Check annotation error: " + rule, e);
+        }
+    }
+
+    /**
+     * @return estimated relative cost of an evaluation
+     */
+    int cost() {
+        return path == null ? operatorCost : operatorCost + Math.max(path.depth() - 1, 0);
+    }
+
+    /**
+     * @param methodInfo method info
+     * @return the message of the rule when it is used on the method
+     */
+    String message(String methodInfo) {
+        if (!StringUtils.isEmpty(customMsg)) {
+            return customMsg;
+        }
+        String num = operatorNum == null ? "" : " " + operatorNum;
+        return field + " must " + symbol + num + methodInfo;
+    }
+
+    /**
+     * the rule uses an operator that is not registered, which may be registered later at runtime
+     */
+    static final class UnknownOperatorException extends IllegalArgumentException {
+
+        private static final long serialVersionUID = 1L;
+
+        UnknownOperatorException(String message) {
+            super(message);
+        }
+    }
+
+}
@@ -0,0 +1,27 @@
+package cn.ciphermagic.common.checker;
+
+/**
+ * how spel rules see the method arguments
+ *
+ * @author CipherCui
+ */
+public enum SpelContextMode {
+
+    /**
+     * a new StandardEvaluationContext per evaluation, arguments set as variables one by one
+     */
+    STANDARD,
+
+    /**
+     * arguments bound by an array-backed resolver over a shared StandardEvaluationContext, full spel syntax
+     */
+    LIGHTWEIGHT,
+
+    /**
+     * arguments bound by an array-backed resolver over a shared SimpleEvaluationContext for read-only data binding.
+     * Type references, constructors, method calls, bean references and property writes are not allowed,
+     * which suits rules loaded from untrusted sources.
+     */
+    READ_ONLY
+
+}
@@ -0,0 +1,87 @@
+package cn.ciphermagic.common.checker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.*;
+
+/**
+ * executors for the concurrent evaluation of spel rules
+ *
+ * @author CipherCui
+ */
+final class SpelExecutors {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpelExecutors.class);
+
+    private SpelExecutors() {
+    }
+
+    /**
+     * create an executor running at most the given number of rules at once, on virtual threads when the runtime has
+     * them (java 21+) or on a pool of daemon threads otherwise. Rules beyond the bound run on the calling thread,
+     * where the spel timeout can not stop them.
+     *
+     * @param parallelism max rules running at once
+     * @return executor
+     */
+    static Executor newBoundedExecutor(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        Executor virtual = newVirtualThreadExecutor();
+        if (virtual != null) {
+            return new BoundedExecutor(virtual, parallelism);
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("checker-spel-");
+        threadFactory.setDaemon(true);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static Executor newVirtualThreadExecutor() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.debug("virtual threads are not available, using a thread pool for spel rules");
+            return null;
+        }
+    }
+
+    /**
+     * limit the tasks running at once on an unbounded executor
+     */
+    private static final class BoundedExecutor implements Executor {
+        private final Executor delegate;
+        private final Semaphore permits;
+
+        private BoundedExecutor(Executor delegate, int parallelism) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(parallelism);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (!permits.tryAcquire()) {
+                command.run();
+                return;
+            }
+            try {
+                delegate.execute(() -> {
+                    try {
+                        command.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw e;
+            }
+        }
+    }
+
+}
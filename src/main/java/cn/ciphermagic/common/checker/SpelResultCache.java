@@ -0,0 +1,175 @@
+package cn.ciphermagic.common.checker;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * bounded result cache of a spel rule with ttl expiry. When full, the least recently used of a few entries
+ * sampled from a random part of the table is evicted, an approximation of LRU that needs no lock or linked list.
+ *
+ * @author CipherCui
+ */
+final class SpelResultCache {
+
+    private static final int EVICTION_SAMPLES = 8;
+
+    /**
+     * indexes of the arguments referenced by the rule
+     */
+    private final int[] argumentIndexes;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<List<Object>, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private SpelResultCache(int[] argumentIndexes, long ttlMillis, int maxSize) {
+        this.argumentIndexes = argumentIndexes;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * create the cache of a rule
+     *
+     * @param rule           spel rule
+     * @param parameterNames parameter names of the method
+     * @param parameterTypes parameter types of the method
+     * @param config         cache settings
+     * @return cache, or null if the rule references variables other than arguments, or array arguments
+     */
+    static SpelResultCache create(SpelRule rule, String[] parameterNames, Class<?>[] parameterTypes, CheckCache config) {
+        if (config.ttl() <= 0 || config.maxSize() <= 0) {
+            throw new IllegalArgumentException("@CheckCache annotation error: ttl and maxSize must be positive");
+        }
+        List<String> names = Arrays.asList(parameterNames);
+        Set<String> variables = rule.getVariableNames();
+        int[] indexes = new int[variables.size()];
+        int i = 0;
+        for (String variable : variables) {
+            int index = names.indexOf(variable);
+            if (index < 0 || parameterTypes[index].isArray()) {
+                return null;
+            }
+            indexes[i++] = index;
+        }
+        return new SpelResultCache(indexes, config.ttl(), config.maxSize());
+    }
+
+    /**
+     * @param arguments arguments
+     * @return key of the result
+     */
+    List<Object> key(Object[] arguments) {
+        if (argumentIndexes.length == 1) {
+            return Collections.singletonList(arguments[argumentIndexes[0]]);
+        }
+        Object[] values = new Object[argumentIndexes.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = arguments[argumentIndexes[i]];
+        }
+        return Arrays.asList(values);
+    }
+
+    /**
+     * @param key key of the result
+     * @return cached result, null if absent or expired
+     */
+    Boolean get(List<Object> key) {
+        Entry entry = entries.get(key);
+        long now = System.nanoTime();
+        if (entry == null || now - entry.expiresAt >= 0) {
+            if (entry != null) {
+                entries.remove(key, entry);
+            }
+            misses.increment();
+            return null;
+        }
+        entry.lastAccess = now;
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * @param key   key of the result
+     * @param value result
+     */
+    void put(List<Object> key, boolean value) {
+        long now = System.nanoTime();
+        entries.put(key, new Entry(value, now + ttlNanos, now));
+        if (entries.size() > maxSize) {
+            evict(now);
+        }
+    }
+
+    private void evict(long now) {
+        Map.Entry<List<Object>, Entry> oldest = null;
+        for (Map.Entry<List<Object>, Entry> candidate : sample()) {
+            if (now - candidate.getValue().expiresAt >= 0) {
+                entries.remove(candidate.getKey(), candidate.getValue());
+                return;
+            }
+            if (oldest == null || candidate.getValue().lastAccess - oldest.getValue().lastAccess < 0) {
+                oldest = candidate;
+            }
+        }
+        if (oldest != null && entries.remove(oldest.getKey(), oldest.getValue())) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * take a few entries from a random part of the table, reached by splitting it in random halves,
+     * so that the first buckets are not always the ones evicted
+     *
+     * @return sampled entries
+     */
+    private List<Map.Entry<List<Object>, Entry>> sample() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Spliterator<Map.Entry<List<Object>, Entry>> part = entries.entrySet().spliterator();
+        while (part.estimateSize() > EVICTION_SAMPLES) {
+            Spliterator<Map.Entry<List<Object>, Entry>> prefix = part.trySplit();
+            if (prefix == null) {
+                break;
+            }
+            if (random.nextBoolean()) {
+                part = prefix;
+            }
+        }
+        List<Map.Entry<List<Object>, Entry>> samples = new ArrayList<>(EVICTION_SAMPLES);
+        while (samples.size() < EVICTION_SAMPLES) {
+            if (!part.tryAdvance(samples::add)) {
+                break;
+            }
+        }
+        if (samples.isEmpty()) {
+            // the part was empty, take the first entries of the table
+            Iterator<Map.Entry<List<Object>, Entry>> it = entries.entrySet().iterator();
+            while (samples.size() < EVICTION_SAMPLES && it.hasNext()) {
+                samples.add(it.next());
+            }
+        }
+        return samples;
+    }
+
+    SpelCacheStats stats() {
+        return new SpelCacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    private static final class Entry {
+        private final boolean value;
+        private final long expiresAt;
+        private volatile long lastAccess;
+
+        private Entry(boolean value, long expiresAt, long lastAccess) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+}
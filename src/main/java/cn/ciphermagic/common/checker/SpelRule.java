@@ -0,0 +1,167 @@
+package cn.ciphermagic.common.checker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.SpelNodeImpl;
+import org.springframework.expression.spel.ast.VariableReference;
+import org.springframework.expression.spel.standard.SpelExpression;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * parsed spel rule, optionally compiled to bytecode
+ * <p>
+ * The expression is parsed once. When a compiler mode is set, the expression is compiled after it has been
+ * interpreted once (IMMEDIATE) or a hundred times (MIXED), because the compiler needs the runtime types.
+ * If the expression can not be compiled, or the compiled code fails, the rule falls back to interpreted mode.
+ *
+ * @author CipherCui
+ */
+final class SpelRule {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpelRule.class);
+
+    /**
+     * interpreted evaluations before compiling in MIXED mode
+     */
+    private static final int MIXED_THRESHOLD = 100;
+    /**
+     * fallbacks from compiled code before giving up compiling
+     */
+    private static final int MAX_FALLBACKS = 3;
+
+    private final String rule;
+    private final SpelExpression expression;
+    private final int threshold;
+    private final AtomicInteger interpretedCount = new AtomicInteger();
+    private volatile boolean compiled;
+    private volatile boolean gaveUp;
+    private int fallbacks;
+
+    /**
+     * parse the rule
+     *
+     * @param parser expression parser, must not compile by itself
+     * @param rule   spel expression
+     * @param mode   compiler mode, null or OFF to always interpret
+     */
+    SpelRule(ExpressionParser parser, String rule, SpelCompilerMode mode) {
+        this(rule, (SpelExpression) parser.parseExpression(rule), mode);
+    }
+
+    /**
+     * use an expression parsed beforehand, its ast is shared but compiled code is kept per rule
+     *
+     * @param parsed parsed expression
+     * @param mode   compiler mode, null or OFF to always interpret
+     */
+    SpelRule(SpelExpression parsed, SpelCompilerMode mode) {
+        this(parsed.getExpressionString(), new SpelExpression(parsed.getExpressionString(), (SpelNodeImpl) parsed.getAST(),
+                new SpelParserConfiguration()), mode);
+    }
+
+    private SpelRule(String rule, SpelExpression expression, SpelCompilerMode mode) {
+        this.rule = rule;
+        this.expression = expression;
+        if (mode == SpelCompilerMode.IMMEDIATE) {
+            this.threshold = 1;
+        } else if (mode == SpelCompilerMode.MIXED) {
+            this.threshold = MIXED_THRESHOLD;
+        } else {
+            this.threshold = 0;
+            this.gaveUp = true;
+        }
+    }
+
+    /**
+     * @return names of the variables referenced by the expression, such as id for {@code #id}
+     */
+    Set<String> getVariableNames() {
+        Set<String> names = new LinkedHashSet<>();
+        collectVariableNames(expression.getAST(), names);
+        return names;
+    }
+
+    private static void collectVariableNames(SpelNode node, Set<String> names) {
+        if (node instanceof VariableReference) {
+            names.add(node.toStringAST().substring(1));
+        }
+        for (int i = 0; i < node.getChildCount(); i++) {
+            collectVariableNames(node.getChild(i), names);
+        }
+    }
+
+    /**
+     * evaluate the rule
+     *
+     * @param context evaluation context
+     * @return is match
+     */
+    Boolean getValue(EvaluationContext context) {
+        if (compiled) {
+            try {
+                return expression.getValue(context, Boolean.class);
+            } catch (SpelEvaluationException e) {
+                if (e.getMessageCode() != SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION) {
+                    throw e;
+                }
+                fallback(e);
+            }
+        }
+        Boolean result = expression.getValue(context, Boolean.class);
+        if (!gaveUp && interpretedCount.incrementAndGet() >= threshold) {
+            compile();
+        }
+        return result;
+    }
+
+    /**
+     * @return spel expression
+     */
+    String getRule() {
+        return rule;
+    }
+
+    /**
+     * @return true if the rule currently runs compiled
+     */
+    boolean isCompiled() {
+        return compiled;
+    }
+
+    private synchronized void compile() {
+        if (compiled || gaveUp) {
+            return;
+        }
+        if (expression.compileExpression()) {
+            compiled = true;
+            LOG.debug("spel rule compiled: {}", rule);
+        } else {
+            gaveUp = true;
+            LOG.debug("spel rule can not be compiled, interpreted instead: {}", rule);
+        }
+    }
+
+    private synchronized void fallback(Exception e) {
+        if (!compiled) {
+            return;
+        }
+        expression.revertToInterpreted();
+        compiled = false;
+        interpretedCount.set(0);
+        if (++fallbacks >= MAX_FALLBACKS) {
+            gaveUp = true;
+        }
+        LOG.debug("compiled spel rule failed, interpreted instead: {}", rule, e);
+    }
+
+}
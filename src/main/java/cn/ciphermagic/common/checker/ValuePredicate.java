@@ -0,0 +1,19 @@
+package cn.ciphermagic.common.checker;
+
+/**
+ * compiled rule of a field value
+ *
+ * @author CipherCui
+ */
+@FunctionalInterface
+public interface ValuePredicate {
+
+    /**
+     * test the value of the field
+     *
+     * @param value field value
+     * @return is valid
+     */
+    boolean test(Object value);
+
+}
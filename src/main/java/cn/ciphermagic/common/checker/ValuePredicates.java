@@ -0,0 +1,322 @@
+package cn.ciphermagic.common.checker;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * factories of the built-in operators, operands are parsed once when the rule is resolved
+ *
+ * @author CipherCui
+ */
+final class ValuePredicates {
+
+    private static final ValuePredicate NOT_NULL = value -> value != null
+            && !(value instanceof String && ((String) value).isEmpty())
+            && !(value instanceof Collection && ((Collection<?>) value).isEmpty());
+
+    private ValuePredicates() {
+    }
+
+    /**
+     * value is not null, not empty string and not empty collection
+     *
+     * @param operand ignored
+     * @return predicate
+     */
+    static ValuePredicate notNull(String operand) {
+        return NOT_NULL;
+    }
+
+    static ValuePredicate greaterThan(String operand) {
+        return new Comparison(operand) {
+            @Override
+            boolean compare(long value) {
+                return value > longOperand;
+            }
+
+            @Override
+            boolean compare(float value) {
+                return value > floatOperand;
+            }
+
+            @Override
+            boolean compare(double value) {
+                return value > doubleOperand;
+            }
+        };
+    }
+
+    static ValuePredicate greaterThanEqual(String operand) {
+        return new Comparison(operand) {
+            @Override
+            boolean compare(long value) {
+                return value >= longOperand;
+            }
+
+            @Override
+            boolean compare(float value) {
+                return value >= floatOperand;
+            }
+
+            @Override
+            boolean compare(double value) {
+                return value >= doubleOperand;
+            }
+        };
+    }
+
+    static ValuePredicate lessThan(String operand) {
+        return new Comparison(operand) {
+            @Override
+            boolean compare(long value) {
+                return value < longOperand;
+            }
+
+            @Override
+            boolean compare(float value) {
+                return value < floatOperand;
+            }
+
+            @Override
+            boolean compare(double value) {
+                return value < doubleOperand;
+            }
+        };
+    }
+
+    static ValuePredicate lessThanEqual(String operand) {
+        return new Comparison(operand) {
+            @Override
+            boolean compare(long value) {
+                return value <= longOperand;
+            }
+
+            @Override
+            boolean compare(float value) {
+                return value <= floatOperand;
+            }
+
+            @Override
+            boolean compare(double value) {
+                return value <= doubleOperand;
+            }
+        };
+    }
+
+    /**
+     * not equal, strings are compared as text, other values as numbers
+     *
+     * @param operand operand
+     * @return predicate
+     */
+    static ValuePredicate notEqual(String operand) {
+        Operand num = Operand.parse(operand);
+        return value -> {
+            if (value instanceof String) {
+                return !value.equals(operand);
+            }
+            if (num == null) {
+                return value != null;
+            }
+            if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+                long v = ((Number) value).longValue();
+                return num.integral ? v != num.longValue : v != num.doubleValue;
+            }
+            if (value instanceof Collection) {
+                int size = ((Collection<?>) value).size();
+                return num.integral ? size != num.longValue : size != num.doubleValue;
+            }
+            if (value instanceof Float) {
+                return Float.floatToIntBits((Float) value) != Float.floatToIntBits(num.floatValue);
+            }
+            if (value instanceof Double) {
+                return Double.doubleToLongBits((Double) value) != Double.doubleToLongBits(num.doubleValue);
+            }
+            return false;
+        };
+    }
+
+    /**
+     * the value, or its string form, matches the regular expression, which is compiled once.
+     * Each thread reuses its own matcher
+     *
+     * @param operand regular expression
+     * @return predicate
+     */
+    static ValuePredicate matches(String operand) {
+        Pattern pattern = Pattern.compile(operand);
+        ThreadLocal<Matcher> matchers = ThreadLocal.withInitial(() -> pattern.matcher(""));
+        return value -> {
+            if (value == null) {
+                return false;
+            }
+            CharSequence text = value instanceof CharSequence ? (CharSequence) value : value.toString();
+            Matcher matcher = matchers.get().reset(text);
+            boolean matched = matcher.matches();
+            matcher.reset("");
+            return matched;
+        };
+    }
+
+    /**
+     * the value is one of a list such as {@code (1, 2, 3)} or {@code [NEW, 'PAID']}. Strings and enums are looked up
+     * in a hash set, integers and decimals by binary search on sorted arrays
+     *
+     * @param operand list of values
+     * @return predicate
+     */
+    static ValuePredicate in(String operand) {
+        String list = operand;
+        if (list.length() >= 2 && (list.startsWith("(") && list.endsWith(")") || list.startsWith("[") && list.endsWith("]"))) {
+            list = list.substring(1, list.length() - 1);
+        }
+        Set<String> texts = new HashSet<>();
+        List<Long> integers = new ArrayList<>();
+        List<Double> decimals = new ArrayList<>();
+        for (String item : list.split(",")) {
+            String text = item.trim();
+            if (text.isEmpty()) {
+                throw new IllegalArgumentException("@Check annotation error: empty value in " + operand);
+            }
+            if (text.length() >= 2 && (text.startsWith("'") && text.endsWith("'") || text.startsWith("\"") && text.endsWith("\""))) {
+                texts.add(text.substring(1, text.length() - 1));
+                continue;
+            }
+            texts.add(text);
+            Operand num = Operand.parse(text);
+            if (num != null) {
+                if (num.integral) {
+                    integers.add(num.longValue);
+                }
+                decimals.add(num.doubleValue);
+            }
+        }
+        long[] longs = integers.stream().mapToLong(Long::longValue).sorted().toArray();
+        double[] doubles = decimals.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        return value -> {
+            if (value instanceof String) {
+                return texts.contains(value);
+            }
+            if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                return Arrays.binarySearch(longs, ((Number) value).longValue()) >= 0;
+            }
+            if (value instanceof Float || value instanceof Double) {
+                return Arrays.binarySearch(doubles, ((Number) value).doubleValue()) >= 0;
+            }
+            if (value instanceof Enum) {
+                return texts.contains(((Enum<?>) value).name());
+            }
+            return value != null && texts.contains(value.toString());
+        };
+    }
+
+    /**
+     * the value is between two numbers such as {@code 18 and 60}, inclusive, compared as by {@code >=} and {@code <=}
+     *
+     * @param operand lower and upper bounds
+     * @return predicate
+     */
+    static ValuePredicate between(String operand) {
+        String[] bounds = operand.split("\\s+and\\s+");
+        if (bounds.length != 2) {
+            throw new IllegalArgumentException("@Check annotation error: " + operand + " is not a range like 1 and 10");
+        }
+        ValuePredicate lower = greaterThanEqual(bounds[0].trim());
+        ValuePredicate upper = lessThanEqual(bounds[1].trim());
+        return value -> lower.test(value) && upper.test(value);
+    }
+
+    /**
+     * numeric operand, parsed once
+     */
+    static final class Operand {
+        final boolean integral;
+        final long longValue;
+        final float floatValue;
+        final double doubleValue;
+
+        private Operand(boolean integral, long longValue, float floatValue, double doubleValue) {
+            this.integral = integral;
+            this.longValue = longValue;
+            this.floatValue = floatValue;
+            this.doubleValue = doubleValue;
+        }
+
+        /**
+         * parse the operand
+         *
+         * @param operand operand string
+         * @return operand, or null if it is not a number
+         */
+        static Operand parse(String operand) {
+            if (operand == null) {
+                return null;
+            }
+            double doubleValue;
+            try {
+                doubleValue = Double.parseDouble(operand);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            try {
+                return new Operand(true, Long.parseLong(operand), Float.parseFloat(operand), doubleValue);
+            } catch (NumberFormatException e) {
+                return new Operand(false, 0L, Float.parseFloat(operand), doubleValue);
+            }
+        }
+    }
+
+    /**
+     * comparison against a numeric operand. Lengths, sizes and integers are compared as long
+     * (as double when the operand has decimals), floats as float and doubles as double.
+     */
+    abstract static class Comparison implements ValuePredicate {
+        final boolean integral;
+        final long longOperand;
+        final float floatOperand;
+        final double doubleOperand;
+
+        Comparison(String operand) {
+            Operand num = Operand.parse(operand);
+            if (num == null) {
+                throw new IllegalArgumentException("@Check annotation error: " + operand + " is not a number");
+            }
+            this.integral = num.integral;
+            this.longOperand = num.longValue;
+            this.floatOperand = num.floatValue;
+            this.doubleOperand = num.doubleValue;
+        }
+
+        @Override
+        public boolean test(Object value) {
+            if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+                return compareIntegral(((Number) value).longValue());
+            }
+            if (value instanceof String) {
+                return compareIntegral(((String) value).length());
+            }
+            if (value instanceof Collection) {
+                return compareIntegral(((Collection<?>) value).size());
+            }
+            if (value instanceof Float) {
+                return compare((float) (Float) value);
+            }
+            if (value instanceof Double) {
+                return compare((double) (Double) value);
+            }
+            return false;
+        }
+
+        private boolean compareIntegral(long value) {
+            return integral ? compare(value) : compare((double) value);
+        }
+
+        abstract boolean compare(long value);
+
+        abstract boolean compare(float value);
+
+        abstract boolean compare(double value);
+    }
+
+}
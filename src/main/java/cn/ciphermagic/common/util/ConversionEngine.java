@@ -0,0 +1,180 @@
+package cn.ciphermagic.common.util;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import org.springframework.util.ReflectionUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe conversion between objects over a long-lived ObjectMapper, the same as
+ * {@link ObjectMapper#convertValue(Object, Class)} with unknown properties ignored.
+ * <p>
+ * Writers are cached per source type and readers per target type, so both bean types are introspected once.
+ * The mapper itself is never reconfigured, which allows sharing the application one.
+ * When enabled, flat pairs of classes are copied by generated copiers instead, see {@link ObjCopierGenerator}.
+ *
+ * @author CipherCui
+ */
+final class ConversionEngine {
+
+    /**
+     * accessible no-arg constructor of each class, null if it has none. Held by the class itself,
+     * so caching it does not keep the class loader alive
+     */
+    private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(Class<?> type) {
+            try {
+                Constructor<?> constructor = type.getDeclaredConstructor();
+                ReflectionUtils.makeAccessible(constructor);
+                return constructor;
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    };
+
+    private final ObjectMapper mapper;
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    /**
+     * source type to target type to copier, empty for pairs left to Jackson. Null if copiers are disabled
+     */
+    private final Map<Class<?>, Map<Class<?>, Optional<ObjCopier>>> copiers;
+
+    ConversionEngine(ObjectMapper mapper, boolean generateCopiers) {
+        this.mapper = mapper;
+        this.copiers = generateCopiers && ObjCopierGenerator.supports(mapper) ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * @return a mapper ignoring unknown properties, used when none is set
+     */
+    static ObjectMapper defaultMapper() {
+        return new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    /**
+     * convert the value to the target type
+     *
+     * @param value       source object
+     * @param targetClass target type
+     * @param <T>         target generic
+     * @return target object, null if the value is null
+     * @throws IllegalArgumentException if the conversion fails
+     */
+    <T> T convert(Object value, Class<T> targetClass) {
+        if (value == null) {
+            return null;
+        }
+        ObjCopier copier = copier(value.getClass(), targetClass);
+        if (copier != null) {
+            Object target = copier.create();
+            copier.copy(value, target);
+            return targetClass.cast(target);
+        }
+        try {
+            return reader(targetClass).readValue(write(value).asParser());
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * copy the properties of the value into an existing target, as {@link ObjectMapper#updateValue(Object, Object)}
+     *
+     * @param value  source object, null to leave the target unchanged
+     * @param target target object, not null
+     * @param <T>    target generic
+     * @return the target
+     * @throws IllegalArgumentException if the conversion fails
+     */
+    <T> T convertInto(Object value, T target) {
+        if (value == null) {
+            return target;
+        }
+        ObjCopier copier = copier(value.getClass(), target.getClass());
+        if (copier != null) {
+            copier.copy(value, target);
+            return target;
+        }
+        try {
+            return reader(target.getClass()).withValueToUpdate(target).readValue(write(value).asParser());
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private TokenBuffer write(Object value) throws IOException {
+        TokenBuffer buffer = new TokenBuffer(mapper, false);
+        if (mapper.isEnabled(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)) {
+            buffer = buffer.forceUseOfBigDecimal(true);
+        }
+        writer(value.getClass()).writeValue(buffer, value);
+        return buffer;
+    }
+
+    /**
+     * create an instance by the no-arg constructor, looked up once per class
+     *
+     * @param type type
+     * @param <T>  generic
+     * @return new instance
+     * @throws ReflectiveOperationException if the class has no no-arg constructor or can not be instantiated
+     */
+    static <T> T instantiate(Class<T> type) throws ReflectiveOperationException {
+        Constructor<?> constructor = CONSTRUCTORS.get(type);
+        if (constructor == null) {
+            throw new NoSuchMethodException(type.getName() + ".<init>()");
+        }
+        try {
+            return type.cast(constructor.newInstance());
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return generated copier of the pair, null if copiers are disabled or the pair is left to Jackson
+     */
+    ObjCopier copier(Class<?> source, Class<?> target) {
+        if (copiers == null) {
+            return null;
+        }
+        return copiers.computeIfAbsent(source, s -> new ConcurrentHashMap<>())
+                .computeIfAbsent(target, t -> Optional.ofNullable(ObjCopierGenerator.generate(mapper, source, t)))
+                .orElse(null);
+    }
+
+    ObjectWriter writer(Class<?> type) {
+        return writers.computeIfAbsent(type, t -> mapper.writerFor(t).without(SerializationFeature.WRAP_ROOT_VALUE));
+    }
+
+    ObjectReader reader(Class<?> type) {
+        return readers.computeIfAbsent(type, t -> mapper.readerFor(t)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .without(DeserializationFeature.UNWRAP_ROOT_VALUE));
+    }
+
+}
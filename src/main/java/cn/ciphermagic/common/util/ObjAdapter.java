@@ -1,18 +1,26 @@
 package cn.ciphermagic.common.util;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Object adapter, conversion between objects, such as: VO to PO, PO to VO
+ * <p>
+ * Conversions share one ObjectMapper with cached readers and writers, see {@link #setObjectMapper(ObjectMapper)}.
  *
  * @author: CipherCui
  */
@@ -20,6 +28,61 @@ public class ObjAdapter {
 
     private static final Logger LOG = LoggerFactory.getLogger(ObjAdapter.class);
 
+    private static volatile ConversionEngine engine = new ConversionEngine(ConversionEngine.defaultMapper(), false);
+    private static volatile boolean generateCopiers;
+    private static volatile int parallelThreshold = Integer.MAX_VALUE;
+    private static volatile Executor parallelExecutor;
+
+    /**
+     * Use the given mapper for conversions, such as the one of Spring Boot. Unknown properties are ignored
+     * whatever its configuration, the mapper itself is not modified.
+     *
+     * @param objectMapper mapper, null to restore the default one
+     */
+    public static synchronized void setObjectMapper(ObjectMapper objectMapper) {
+        engine = new ConversionEngine(objectMapper != null ? objectMapper : ConversionEngine.defaultMapper(), generateCopiers);
+    }
+
+    /**
+     * Copy flat objects with generated copiers calling the getters and setters directly, false by default.
+     * A copier is generated by javassist for each pair of public classes with a public no-arg target constructor,
+     * whose properties named by the mapper are primitives, wrappers, strings, big numbers or enums and carry
+     * no Jackson annotation other than naming ones. Other pairs are converted by the mapper.
+     *
+     * @param generateCopiers whether to generate copiers
+     */
+    public static synchronized void setGenerateCopiers(boolean generateCopiers) {
+        ObjAdapter.generateCopiers = generateCopiers;
+        engine = new ConversionEngine(engine.getMapper(), generateCopiers);
+    }
+
+    /**
+     * @return mapper used for conversions
+     */
+    public static ObjectMapper getObjectMapper() {
+        return engine.getMapper();
+    }
+
+    /**
+     * Convert collections with at least this many elements in parallel, disabled by default.
+     * The order of the elements and the {@link ObjConversionException} raised on failure are the same as sequentially.
+     * Decorators must then be thread-safe.
+     *
+     * @param parallelThreshold size threshold
+     */
+    public static void setParallelThreshold(int parallelThreshold) {
+        ObjAdapter.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Executor of the parallel conversions, the fork-join pool if null, the default
+     *
+     * @param parallelExecutor executor
+     */
+    public static void setParallelExecutor(Executor parallelExecutor) {
+        ObjAdapter.parallelExecutor = parallelExecutor;
+    }
+
     /**
      * Generally used for the conversion of multiple A objects to B objects
      * <p>
@@ -32,19 +95,14 @@ public class ObjAdapter {
      * @param <A>         source object generic
      * @param <B>         target generic
      * @return target object collection
+     * @throws ObjConversionException if an element can not be converted, carrying the lowest failing index,
+     *                                whether the collection is converted sequentially or in parallel. Errors are not wrapped
      */
     public static <A, B> List<B> convert(Collection<A> collection, Class<B> targetClass, BiConsumer<A, B> decorator) {
         if (collection == null || collection.size() == 0) {
             return new ArrayList<>();
-        } else {
-            ObjectMapper om = new ObjectMapper();
-            om.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            return collection.stream().map(a -> {
-                B b = om.convertValue(a, targetClass);
-                decorator.accept(a, b);
-                return b;
-            }).collect(Collectors.toList());
         }
+        return convertAll(collection, converter(targetClass, decorator));
     }
 
     /**
@@ -55,15 +113,355 @@ public class ObjAdapter {
      * @param <A>         source object generic
      * @param <B>         target generic
      * @return target object collection
+     * @throws ObjConversionException if an element can not be converted, carrying the lowest failing index,
+     *                                whether the collection is converted sequentially or in parallel. Errors are not wrapped
      */
     public static <A, B> List<B> convert(Collection<A> collection, Class<B> targetClass) {
         if (collection == null || collection.size() == 0) {
             return new ArrayList<>();
+        }
+        return convertAll(collection, converter(targetClass, null));
+    }
+
+    /**
+     * Lazily convert the elements of a stream, each one when it is consumed, so that large sources such as
+     * cursors are converted with bounded memory
+     *
+     * @param stream      source object stream
+     * @param targetClass target type
+     * @param decorator   modify the target object
+     * @param <A>         source object generic
+     * @param <B>         target generic
+     * @return target object stream
+     */
+    public static <A, B> Stream<B> convertLazily(Stream<A> stream, Class<B> targetClass, BiConsumer<A, B> decorator) {
+        if (stream == null) {
+            return Stream.empty();
+        }
+        return stream.map(converter(targetClass, decorator));
+    }
+
+    /**
+     * Lazily convert the elements of a stream, each one when it is consumed
+     *
+     * @param stream      source object stream
+     * @param targetClass target type
+     * @param <A>         source object generic
+     * @param <B>         target generic
+     * @return target object stream
+     */
+    public static <A, B> Stream<B> convertLazily(Stream<A> stream, Class<B> targetClass) {
+        return convertLazily(stream, targetClass, null);
+    }
+
+    /**
+     * Lazily convert the elements of a spliterator, each one when it is consumed
+     *
+     * @param spliterator source object spliterator
+     * @param targetClass target type
+     * @param decorator   modify the target object
+     * @param <A>         source object generic
+     * @param <B>         target generic
+     * @return target object stream
+     */
+    public static <A, B> Stream<B> convertLazily(Spliterator<A> spliterator, Class<B> targetClass, BiConsumer<A, B> decorator) {
+        if (spliterator == null) {
+            return Stream.empty();
+        }
+        return convertLazily(StreamSupport.stream(spliterator, false), targetClass, decorator);
+    }
+
+    /**
+     * Lazily convert the elements of a spliterator, each one when it is consumed
+     *
+     * @param spliterator source object spliterator
+     * @param targetClass target type
+     * @param <A>         source object generic
+     * @param <B>         target generic
+     * @return target object stream
+     */
+    public static <A, B> Stream<B> convertLazily(Spliterator<A> spliterator, Class<B> targetClass) {
+        return convertLazily(spliterator, targetClass, null);
+    }
+
+    /**
+     * Lazily convert the elements of an iterator, each one by next()
+     *
+     * @param iterator    source object iterator
+     * @param targetClass target type
+     * @param decorator   modify the target object
+     * @param <A>         source object generic
+     * @param <B>         target generic
+     * @return target object iterator
+     */
+    public static <A, B> Iterator<B> convertLazily(Iterator<A> iterator, Class<B> targetClass, BiConsumer<A, B> decorator) {
+        if (iterator == null) {
+            return Collections.emptyIterator();
+        }
+        Function<A, B> converter = converter(targetClass, decorator);
+        return new Iterator<B>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public B next() {
+                return converter.apply(iterator.next());
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+            }
+        };
+    }
+
+    /**
+     * Lazily convert the elements of an iterator, each one by next()
+     *
+     * @param iterator    source object iterator
+     * @param targetClass target type
+     * @param <A>         source object generic
+     * @param <B>         target generic
+     * @return target object iterator
+     */
+    public static <A, B> Iterator<B> convertLazily(Iterator<A> iterator, Class<B> targetClass) {
+        return convertLazily(iterator, targetClass, null);
+    }
+
+    /**
+     * Convert the elements sequentially, or in parallel from the threshold, keeping their order
+     *
+     * @param collection source object collection, not empty
+     * @param converter  conversion of a single object
+     * @return target object collection
+     * @throws ObjConversionException for the failing element of lowest index
+     */
+    private static <A, B> List<B> convertAll(Collection<A> collection, Function<A, B> converter) {
+        if (collection.size() >= parallelThreshold) {
+            return convertInParallel(collection, converter);
+        }
+        List<B> targets = new ArrayList<>(collection.size());
+        int index = 0;
+        for (A a : collection) {
+            targets.add(convertAt(a, index++, converter));
+        }
+        return targets;
+    }
+
+    /**
+     * Convert the elements on the fork-join pool or the parallel executor, keeping their order.
+     * After a failure only the elements before it are still converted, so the failure of lowest index is raised
+     *
+     * @param collection source object collection
+     * @param converter  conversion of a single object
+     * @return target object collection
+     * @throws ObjConversionException for the failing element of lowest index
+     */
+    @SuppressWarnings("unchecked")
+    private static <A, B> List<B> convertInParallel(Collection<A> collection, Function<A, B> converter) {
+        A[] sources = (A[]) collection.toArray();
+        Object[] targets = new Object[sources.length];
+        AtomicReference<ObjConversionException> lowest = new AtomicReference<>();
+        IntConsumer convert = i -> {
+            try {
+                targets[i] = convertAt(sources[i], i, converter);
+            } catch (ObjConversionException e) {
+                lowest.accumulateAndGet(e, (current, failure) ->
+                        current == null || failure.getIndex() < current.getIndex() ? failure : current);
+            }
+        };
+        Executor executor = parallelExecutor;
+        if (executor == null) {
+            IntStream.range(0, sources.length).parallel().forEach(i -> {
+                if (!failedBefore(lowest, i)) {
+                    convert.accept(i);
+                }
+            });
         } else {
-            ObjectMapper om = new ObjectMapper();
-            om.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            return collection.stream().map(a -> om.convertValue(a, targetClass)).collect(Collectors.toList());
+            int chunks = Math.min(sources.length, Runtime.getRuntime().availableProcessors() * 4);
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[chunks];
+            for (int c = 0; c < chunks; c++) {
+                int from = (int) ((long) sources.length * c / chunks);
+                int to = (int) ((long) sources.length * (c + 1) / chunks);
+                futures[c] = CompletableFuture.runAsync(() -> {
+                    for (int i = from; i < to && !failedBefore(lowest, i); i++) {
+                        convert.accept(i);
+                    }
+                }, executor);
+            }
+            try {
+                CompletableFuture.allOf(futures).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw (RuntimeException) e.getCause();
+            }
+        }
+        ObjConversionException failure = lowest.get();
+        if (failure != null) {
+            throw failure;
+        }
+        return new ArrayList<>((List<B>) Arrays.asList(targets));
+    }
+
+    /**
+     * @return true if an element before the index failed, the element can then not change the result
+     */
+    private static boolean failedBefore(AtomicReference<ObjConversionException> lowest, int index) {
+        ObjConversionException failure = lowest.get();
+        return failure != null && failure.getIndex() < index;
+    }
+
+    private static <A, B> B convertAt(A source, int index, Function<A, B> converter) {
+        try {
+            return converter.apply(source);
+        } catch (RuntimeException e) {
+            throw new ObjConversionException("conversion of element " + index + " failed: " + e.getMessage(), index, e);
+        }
+    }
+
+    /**
+     * Lazily convert the elements of a stream into targets given by the supplier, called once per non null element.
+     * A supplier returning the same instance makes every element alias that one object: each target is then
+     * overwritten by the next element, so it must be used before the next one is consumed and never be collected
+     *
+     * @param stream    source object stream
+     * @param targets   supplier of the target objects
+     * @param decorator modify the target object
+     * @param <A>       source object generic
+     * @param <B>       target generic
+     * @return target object stream, with null for null elements
+     */
+    public static <A, B> Stream<B> convertLazilyInto(Stream<A> stream, Supplier<B> targets, BiConsumer<A, B> decorator) {
+        if (stream == null) {
+            return Stream.empty();
+        }
+        return stream.map(converter(targets, decorator));
+    }
+
+    /**
+     * Lazily convert the elements of a stream into targets given by the supplier
+     *
+     * @param stream  source object stream
+     * @param targets supplier of the target objects
+     * @param <A>     source object generic
+     * @param <B>     target generic
+     * @return target object stream, with null for null elements
+     */
+    public static <A, B> Stream<B> convertLazilyInto(Stream<A> stream, Supplier<B> targets) {
+        return convertLazilyInto(stream, targets, null);
+    }
+
+    /**
+     * Lazily convert the elements of an iterator into targets given by the supplier, called once per non null element.
+     * A supplier returning the same instance makes every element alias that one object, see
+     * {@link #convertLazilyInto(Stream, Supplier, BiConsumer)}
+     *
+     * @param iterator  source object iterator
+     * @param targets   supplier of the target objects
+     * @param decorator modify the target object
+     * @param <A>       source object generic
+     * @param <B>       target generic
+     * @return target object iterator, with null for null elements
+     */
+    public static <A, B> Iterator<B> convertLazilyInto(Iterator<A> iterator, Supplier<B> targets, BiConsumer<A, B> decorator) {
+        if (iterator == null) {
+            return Collections.emptyIterator();
         }
+        Function<A, B> converter = converter(targets, decorator);
+        return new Iterator<B>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public B next() {
+                return converter.apply(iterator.next());
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+            }
+        };
+    }
+
+    /**
+     * Lazily convert the elements of an iterator into targets given by the supplier
+     *
+     * @param iterator source object iterator
+     * @param targets  supplier of the target objects
+     * @param <A>      source object generic
+     * @param <B>      target generic
+     * @return target object iterator, with null for null elements
+     */
+    public static <A, B> Iterator<B> convertLazilyInto(Iterator<A> iterator, Supplier<B> targets) {
+        return convertLazilyInto(iterator, targets, null);
+    }
+
+    /**
+     * @param targets   supplier of the target objects
+     * @param decorator modify the target object, may be null
+     * @return conversion of a single object into a supplied target with the current engine
+     */
+    private static <A, B> Function<A, B> converter(Supplier<B> targets, BiConsumer<A, B> decorator) {
+        ConversionEngine conversion = engine;
+        return a -> {
+            B b = a == null ? null : conversion.convertInto(a, targets.get());
+            if (decorator != null) {
+                decorator.accept(a, b);
+            }
+            return b;
+        };
+    }
+
+    /**
+     * @param targetClass target type
+     * @param decorator   modify the target object, may be null
+     * @return conversion of a single object with the current engine
+     */
+    private static <A, B> Function<A, B> converter(Class<B> targetClass, BiConsumer<A, B> decorator) {
+        ConversionEngine conversion = engine;
+        if (decorator == null) {
+            return a -> conversion.convert(a, targetClass);
+        }
+        return a -> {
+            B b = conversion.convert(a, targetClass);
+            decorator.accept(a, b);
+            return b;
+        };
+    }
+
+    /**
+     * Used to update an existing B object from an A object, instead of allocating a new one
+     *
+     * @param a         source object, null to leave the target unchanged
+     * @param target    target object
+     * @param decorator modify the target object
+     * @param <A>       source object generic
+     * @param <B>       target generic
+     * @return the target object
+     */
+    public static <A, B> B convertInto(A a, B target, BiConsumer<A, B> decorator) {
+        B b = convertInto(a, target);
+        decorator.accept(a, b);
+        return b;
+    }
+
+    /**
+     * Used to update an existing object from another object, instead of allocating a new one
+     *
+     * @param a      source object, null to leave the target unchanged
+     * @param target target object
+     * @param <T>    target generic
+     * @return the target object
+     */
+    public static <T> T convertInto(Object a, T target) {
+        return engine.convertInto(a, target);
     }
 
     /**
@@ -81,8 +479,8 @@ public class ObjAdapter {
         B b = null;
         if (a == null) {
             try {
-                b = targetClass.newInstance();
-            } catch (InstantiationException | IllegalAccessException e) {
+                b = ConversionEngine.instantiate(targetClass);
+            } catch (ReflectiveOperationException e) {
                 LOG.error("" + e);
             }
         } else {
@@ -106,14 +504,13 @@ public class ObjAdapter {
         T b = null;
         if (a == null) {
             try {
-                b = targetClass.newInstance();
-            } catch (InstantiationException | IllegalAccessException e) {
+                b = ConversionEngine.instantiate(targetClass);
+            } catch (ReflectiveOperationException e) {
                 LOG.error("" + e);
             }
         } else {
-            ObjectMapper om = new ObjectMapper();
-            om.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            b = om.convertValue(a, targetClass);
+            ConversionEngine conversion = engine;
+            b = conversion.convert(a, targetClass);
         }
         return b;
     }
@@ -0,0 +1,26 @@
+package cn.ciphermagic.common.util;
+
+/**
+ * Failure to convert an element of a collection, sequentially or in parallel
+ *
+ * @author CipherCui
+ */
+public class ObjConversionException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int index;
+
+    public ObjConversionException(String message, int index, Throwable cause) {
+        super(message, cause);
+        this.index = index;
+    }
+
+    /**
+     * @return index of the element in the source collection
+     */
+    public int getIndex() {
+        return index;
+    }
+
+}
@@ -0,0 +1,24 @@
+package cn.ciphermagic.common.util;
+
+/**
+ * Generated copier between a source and a target class, see {@link ObjAdapter#setGenerateCopiers(boolean)}.
+ * Public only for the generated classes, which live in the package of the target
+ *
+ * @author CipherCui
+ */
+public interface ObjCopier {
+
+    /**
+     * @return new instance of the target class
+     */
+    Object create();
+
+    /**
+     * copy the properties of the source into the target
+     *
+     * @param source source object, not null
+     * @param target target object, not null
+     */
+    void copy(Object source, Object target);
+
+}
@@ -0,0 +1,317 @@
+package cn.ciphermagic.common.util;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.cfg.ConfigOverride;
+import com.fasterxml.jackson.databind.deser.BeanDeserializer;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.introspect.AnnotatedConstructor;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.BeanSerializer;
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ClassUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generate copiers calling the getters of the source and the setters of the target directly, for flat classes
+ * whose conversion by the mapper would give the same result: public beans with a public no-arg constructor,
+ * properties named by the mapper and typed as primitives, wrappers, strings, big numbers or enums,
+ * and no Jackson annotation changing how they are written or read.
+ * <p>
+ * Other pairs return null and keep the Jackson conversion.
+ *
+ * @author CipherCui
+ */
+final class ObjCopierGenerator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ObjCopierGenerator.class);
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+    /**
+     * Jackson annotations handled by the introspection of the mapper, any other one keeps the Jackson conversion
+     */
+    private static final Set<String> NAMING_ANNOTATIONS = new HashSet<>(Arrays.asList(
+            "com.fasterxml.jackson.annotation.JsonProperty",
+            "com.fasterxml.jackson.annotation.JsonIgnore",
+            "com.fasterxml.jackson.annotation.JsonIgnoreProperties",
+            "com.fasterxml.jackson.annotation.JsonPropertyOrder",
+            "com.fasterxml.jackson.annotation.JsonAutoDetect"));
+    private static final Set<Class<?>> VALUE_TYPES = new HashSet<>(Arrays.asList(
+            String.class, BigDecimal.class, BigInteger.class));
+    /**
+     * primitive types in the order of widening conversions, char is left out as Jackson writes it as a string
+     */
+    private static final List<Class<?>> WIDENING = Arrays.asList(
+            byte.class, short.class, int.class, long.class, float.class, double.class);
+    private static final List<Class<?>> PRIMITIVES = Arrays.asList(
+            boolean.class, char.class, byte.class, short.class, int.class, long.class, float.class, double.class);
+
+    private ObjCopierGenerator() {
+    }
+
+    /**
+     * whether the mapper leaves flat properties as they are, so that copiers give the same result
+     *
+     * @param mapper mapper
+     * @return true if copiers can be used with the mapper
+     */
+    static boolean supports(ObjectMapper mapper) {
+        return mapper.mixInCount() == 0
+                && !mapper.isEnabled(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES)
+                && !mapper.isEnabled(DeserializationFeature.FAIL_ON_IGNORED_PROPERTIES)
+                && isAlways(mapper.getSerializationConfig().getDefaultPropertyInclusion())
+                && mapper.getDeserializationConfig().getDefaultSetterInfo().nonDefaultValueNulls() == null;
+    }
+
+    /**
+     * generate the copier of a pair
+     *
+     * @param mapper mapper naming the properties, see {@link #supports(ObjectMapper)}
+     * @param source source class
+     * @param target target class
+     * @return copier, or null if the pair is left to Jackson
+     */
+    static ObjCopier generate(ObjectMapper mapper, Class<?> source, Class<?> target) {
+        if (!isBean(source) || !isBean(target) || !ClassUtils.isVisible(source, target.getClassLoader())
+                || hasJacksonAnnotations(source) || hasJacksonAnnotations(target)) {
+            return null;
+        }
+        try {
+            if (!isStandard(mapper, source, target)) {
+                return null;
+            }
+            String body = copyBody(mapper, source, target);
+            return body == null ? null : makeClass(source, target, body);
+        } catch (Exception | LinkageError e) {
+            LOG.debug("could not generate copier from {} to {}", source, target, e);
+            return null;
+        }
+    }
+
+    /**
+     * build the body of the copy method
+     *
+     * @return body, or null if a property can not be copied directly
+     */
+    private static String copyBody(ObjectMapper mapper, Class<?> source, Class<?> target) {
+        BeanDescription read = mapper.getSerializationConfig().introspect(mapper.constructType(source));
+        BeanDescription write = mapper.getDeserializationConfig().introspect(mapper.constructType(target));
+        AnnotatedConstructor constructor = write.findDefaultConstructor();
+        if (constructor == null || !Modifier.isPublic(constructor.getAnnotated().getModifiers())) {
+            return null;
+        }
+        List<BeanPropertyDefinition> properties = read.findProperties();
+        if (properties.isEmpty()) {
+            // left to the mapper, which may fail on empty beans
+            return null;
+        }
+        Map<String, BeanPropertyDefinition> mutators = new HashMap<>();
+        for (BeanPropertyDefinition property : write.findProperties()) {
+            if (property.couldDeserialize()) {
+                mutators.put(property.getName(), property);
+            }
+        }
+        StringBuilder body = new StringBuilder("{\n");
+        body.append(source.getName()).append(" s = (").append(source.getName()).append(") $1;\n");
+        body.append(target.getName()).append(" t = (").append(target.getName()).append(") $2;\n");
+        int i = 0;
+        for (BeanPropertyDefinition property : properties) {
+            BeanPropertyDefinition mutator = property.couldSerialize() ? mutators.get(property.getName()) : null;
+            if (mutator == null) {
+                // not written, or ignored as an unknown property
+                continue;
+            }
+            Member getter = property.getAccessor() == null ? null : property.getAccessor().getMember();
+            Member setter = mutator.getMutator() == null ? null : mutator.getMutator().getMember();
+            if (!isAccessible(getter) || !isAccessible(setter)) {
+                return null;
+            }
+            Class<?> from = getter instanceof Method ? ((Method) getter).getReturnType() : ((Field) getter).getType();
+            Class<?> to = setter instanceof Method ? ((Method) setter).getParameterTypes()[0] : ((Field) setter).getType();
+            if (!isFlat(mapper, source, from) || !isFlat(mapper, target, to)) {
+                return null;
+            }
+            String value = "v" + i++;
+            String get = getter instanceof Method ? "s." + getter.getName() + "()" : "s." + getter.getName();
+            body.append(from.getName()).append(" ").append(value).append(" = ").append(get).append(";\n");
+            if (!appendSet(mapper, body, from, to, value, setter)) {
+                return null;
+            }
+        }
+        return body.append("}").toString();
+    }
+
+    /**
+     * append the statement setting the value, converted as Jackson would
+     *
+     * @return false if the types are not compatible
+     */
+    private static boolean appendSet(ObjectMapper mapper, StringBuilder body, Class<?> from, Class<?> to, String value, Member setter) {
+        if (from == to) {
+            body.append(set(setter, value)).append(";\n");
+            return true;
+        }
+        Class<?> fromPrimitive = primitive(from);
+        Class<?> toPrimitive = primitive(to);
+        if (fromPrimitive == null || toPrimitive == null || !(fromPrimitive == toPrimitive || widens(fromPrimitive, toPrimitive))) {
+            return false;
+        }
+        String primitive = from.isPrimitive() ? value : value + "." + fromPrimitive.getName() + "Value()";
+        if (fromPrimitive != toPrimitive) {
+            primitive = "(" + toPrimitive.getName() + ") " + primitive;
+        }
+        String converted = to.isPrimitive() ? primitive : to.getName() + ".valueOf(" + primitive + ")";
+        if (from.isPrimitive()) {
+            body.append(set(setter, converted)).append(";\n");
+            return true;
+        }
+        if (to.isPrimitive() && mapper.isEnabled(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)) {
+            return false;
+        }
+        String empty = to.isPrimitive() ? defaultValue(to) : "(" + to.getName() + ") null";
+        body.append("if (").append(value).append(" == null) { ").append(set(setter, empty)).append("; } else { ")
+                .append(set(setter, converted)).append("; }\n");
+        return true;
+    }
+
+    private static String set(Member setter, String value) {
+        return setter instanceof Method ? "t." + setter.getName() + "(" + value + ")" : "t." + setter.getName() + " = " + value;
+    }
+
+    private static String defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return "false";
+        }
+        return type == char.class ? "(char) 0" : "(" + type.getName() + ") 0";
+    }
+
+    /**
+     * @return the type if primitive, the primitive of a wrapper, null otherwise
+     */
+    private static Class<?> primitive(Class<?> type) {
+        if (type.isPrimitive()) {
+            return type;
+        }
+        for (Class<?> primitive : PRIMITIVES) {
+            if (ClassUtils.resolvePrimitiveIfNecessary(primitive) == type) {
+                return primitive;
+            }
+        }
+        return null;
+    }
+
+    private static boolean widens(Class<?> from, Class<?> to) {
+        int i = WIDENING.indexOf(from);
+        return i >= 0 && WIDENING.indexOf(to) > i;
+    }
+
+    /**
+     * public concrete class with a no-arg constructor, outside of the jdk
+     */
+    private static boolean isBean(Class<?> type) {
+        return Modifier.isPublic(type.getModifiers()) && !Modifier.isAbstract(type.getModifiers())
+                && !type.isArray() && !type.isPrimitive() && !type.isEnum()
+                && (type.getEnclosingClass() == null || Modifier.isStatic(type.getModifiers()))
+                && !type.getName().startsWith("java");
+    }
+
+    private static boolean isAccessible(Member member) {
+        return (member instanceof Method || member instanceof Field)
+                && Modifier.isPublic(member.getModifiers()) && !Modifier.isStatic(member.getModifiers())
+                && Modifier.isPublic(member.getDeclaringClass().getModifiers());
+    }
+
+    /**
+     * property type kept as is by the mapper
+     */
+    private static boolean isFlat(ObjectMapper mapper, Class<?> owner, Class<?> type) {
+        boolean flat = type.isPrimitive() || ClassUtils.isPrimitiveWrapper(type) || VALUE_TYPES.contains(type)
+                || type.isEnum() && !hasJacksonAnnotations(type)
+                && !mapper.isEnabled(SerializationFeature.WRITE_ENUMS_USING_TO_STRING)
+                && !mapper.isEnabled(SerializationFeature.WRITE_ENUMS_USING_INDEX)
+                && !mapper.isEnabled(DeserializationFeature.READ_ENUMS_USING_TO_STRING);
+        if (!flat || !isAlways(mapper.getSerializationConfig().getDefaultInclusion(owner, type))) {
+            return false;
+        }
+        ConfigOverride override = mapper.getDeserializationConfig().findConfigOverride(type);
+        return override == null || override.getSetterInfo() == null || override.getSetterInfo().nonDefaultValueNulls() == null;
+    }
+
+    private static boolean isAlways(JsonInclude.Value inclusion) {
+        return inclusion == null || isAlways(inclusion.getValueInclusion()) && isAlways(inclusion.getContentInclusion());
+    }
+
+    private static boolean isAlways(JsonInclude.Include include) {
+        return include == JsonInclude.Include.ALWAYS || include == JsonInclude.Include.USE_DEFAULTS;
+    }
+
+    /**
+     * whether the mapper uses its bean serializer and deserializer, and not custom ones registered by modules
+     */
+    private static boolean isStandard(ObjectMapper mapper, Class<?> source, Class<?> target) throws JsonMappingException {
+        if (mapper.getSerializerProviderInstance().findValueSerializer(source).getClass() != BeanSerializer.class) {
+            return false;
+        }
+        DeserializationContext context = ((DefaultDeserializationContext) mapper.getDeserializationContext())
+                .createInstance(mapper.getDeserializationConfig(), null, null);
+        return context.findRootValueDeserializer(mapper.constructType(target)).getClass() == BeanDeserializer.class;
+    }
+
+    /**
+     * whether the class or its members carry Jackson or java.beans annotations, other than naming ones
+     */
+    private static boolean hasJacksonAnnotations(Class<?> type) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            List<AnnotatedElement> elements = new ArrayList<>();
+            elements.add(c);
+            elements.addAll(Arrays.asList(c.getDeclaredFields()));
+            elements.addAll(Arrays.asList(c.getDeclaredMethods()));
+            elements.addAll(Arrays.asList(c.getDeclaredConstructors()));
+            for (AnnotatedElement element : elements) {
+                for (Annotation annotation : element.getAnnotations()) {
+                    String name = annotation.annotationType().getName();
+                    if ((name.startsWith("com.fasterxml.jackson.") || name.startsWith("java.beans."))
+                            && !NAMING_ANNOTATIONS.contains(name)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * make the copier class in the package of the target type
+     *
+     * @param source source type
+     * @param target target type
+     * @param body   body of copy method
+     * @return copier instance
+     * @throws Exception failed to generate
+     */
+    private static ObjCopier makeClass(Class<?> source, Class<?> target, String body) throws Exception {
+        ClassPool pool = new ClassPool(true);
+        pool.appendClassPath(new LoaderClassPath(source.getClassLoader()));
+        pool.appendClassPath(new LoaderClassPath(target.getClassLoader()));
+        pool.appendClassPath(new ClassClassPath(ObjCopier.class));
+        CtClass cc = pool.makeClass(target.getName() + "$$ObjCopier$$" + COUNTER.incrementAndGet());
+        cc.addInterface(pool.get(ObjCopier.class.getName()));
+        cc.addMethod(CtNewMethod.make("public Object create() { return new " + target.getName() + "(); }", cc));
+        cc.addMethod(CtNewMethod.make("public void copy(Object source, Object target) " + body, cc));
+        Class<?> clazz = cc.toClass(target);
+        cc.detach();
+        return (ObjCopier) clazz.getConstructor().newInstance();
+    }
+
+}
@@ -0,0 +1,34 @@
+package cn.ciphermagic.common.checker;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author CipherCui
+ */
+class AdaptiveOrderingTest {
+
+    @Test
+    void reorderedRulesReportTheDeclaredFirstFailure() throws Exception {
+        List<Method> methods = RuleFixtures.methods(RuleFixtures.RuleChains.class);
+        Object declared = RuleFixtures.proxy(RuleFixtures.RuleChains.class, CheckerInterceptor.builder()
+                .unsuccessful(msg -> msg).build());
+        Object adaptive = RuleFixtures.proxy(RuleFixtures.RuleChains.class, CheckerInterceptor.builder()
+                .unsuccessful(msg -> msg).adaptiveOrdering(true).build());
+        Random random = new Random(7);
+        // enough calls for every plan to be reordered several times
+        for (int n = 0; n < 5000; n++) {
+            RuleFixtures.Vo vo = RuleFixtures.random(random);
+            for (Method method : methods) {
+                assertEquals(RuleFixtures.call(declared, method, vo), RuleFixtures.call(adaptive, method, vo),
+                        () -> String.join(", ", method.getAnnotation(Check.class).value()) + " on " + vo);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package cn.ciphermagic.common.checker;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author CipherCui
+ */
+class CheckValidatorGeneratorTest {
+
+    @Test
+    void generatedValidatorsMatchTheInterpretiveCheck() throws Exception {
+        assertSameResults(RuleFixtures.GeneratedRules.class);
+        assertSameResults(RuleFixtures.InterpretedRules.class);
+    }
+
+    @Test
+    void onlySupportedRulesAreGenerated() throws Exception {
+        // rules of a generated validator are checked at once, without per rule metrics
+        assertGenerated(RuleFixtures.GeneratedRules.class, true);
+        assertGenerated(RuleFixtures.InterpretedRules.class, false);
+    }
+
+    private static void assertSameResults(Class<?> service) throws Exception {
+        List<Method> methods = RuleFixtures.methods(service);
+        Object interpretive = RuleFixtures.proxy(service, CheckerInterceptor.builder()
+                .unsuccessful(msg -> msg).build());
+        Object generated = RuleFixtures.proxy(service, CheckerInterceptor.builder()
+                .unsuccessful(msg -> msg).generateValidators(true).build());
+        Random random = new Random(42);
+        for (int n = 0; n < 300; n++) {
+            RuleFixtures.Vo vo = RuleFixtures.random(random);
+            for (Method method : methods) {
+                assertEquals(RuleFixtures.call(interpretive, method, vo), RuleFixtures.call(generated, method, vo),
+                        () -> String.join(", ", method.getAnnotation(Check.class).value()) + " on " + vo);
+            }
+        }
+    }
+
+    private static void assertGenerated(Class<?> service, boolean generated) throws Exception {
+        InMemoryCheckerMetrics metrics = new InMemoryCheckerMetrics();
+        Object proxy = RuleFixtures.proxy(service, CheckerInterceptor.builder()
+                .unsuccessful(msg -> msg).generateValidators(true).metrics(metrics).build());
+        RuleFixtures.Vo vo = RuleFixtures.random(new Random(1));
+        for (Method method : RuleFixtures.methods(service)) {
+            RuleFixtures.call(proxy, method, vo);
+            boolean perRule = !metrics.getMethod(method).getRules().isEmpty();
+            if (generated) {
+                assertFalse(perRule, method.getName() + " is not generated");
+            } else {
+                assertTrue(perRule, method.getName() + " is generated");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,256 @@
+package cn.ciphermagic.common.checker;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author CipherCui
+ */
+class CheckerInterceptorTest {
+
+    private static <T> T proxy(T target, CheckerInterceptor interceptor) {
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(CheckerInterceptor.checkAdvisor(interceptor));
+        @SuppressWarnings("unchecked")
+        T proxy = (T) factory.getProxy();
+        return proxy;
+    }
+
+    private static UserService service() {
+        return proxy(new UserService(), CheckerInterceptor.builder().unsuccessful(msg -> msg).build());
+    }
+
+    @Test
+    void nullFirstArgumentIsRejected() {
+        assertEquals("param can not be null", service().save(null));
+        assertEquals("name must not null while calling save", service().save(new User(null, 1)));
+        assertEquals("ok", service().save(new User("a", 1)));
+    }
+
+    @Test
+    void argumentSelectorsHandleNullArguments() {
+        assertEquals("ok", service().limit(null, 1));
+        assertEquals("[1] must > 0 while calling limit", service().limit(null, 0));
+    }
+
+    @Test
+    void dynamicRulesApplyOnUpdate() {
+        UserService service = service();
+        CheckerInterceptor.removeDynamicField("user.rename");
+        assertEquals("ok", service.rename(new User(null, 0)));
+        CheckerInterceptor.updateDynamicField("user.rename", new String[]{"name"});
+        assertEquals("name must not null while calling rename", service.rename(new User(null, 1)));
+        CheckerInterceptor.updateDynamicField("other.key", new String[]{"age > 0"});
+        assertEquals("ok", service.rename(new User("a", 0)));
+        CheckerInterceptor.updateDynamicField("user.rename", new String[]{"age > 0"});
+        assertEquals("age must > 0 while calling rename", service.rename(new User("a", 0)));
+        CheckerInterceptor.removeDynamicField("user.rename");
+        assertEquals("ok", service.rename(new User(null, 0)));
+    }
+
+    @Test
+    void eachReportIndexesDoNotDependOnTheParallelThreshold() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            users.add(new User("u" + i, i % 1000 == 999 ? 0 : 1));
+        }
+        users.set(3, null);
+        users.set(4000, new User(null, 1));
+        EachCheckReport sequential = eachReport(users, Integer.MAX_VALUE);
+        EachCheckReport parallel = eachReport(users, 100);
+        BitSet expected = new BitSet();
+        IntStream.of(3, 999, 1999, 2999, 3999, 4000, 4999).forEach(expected::set);
+        assertEquals(expected, sequential.getFailedIndexes());
+        assertEquals(expected, parallel.getFailedIndexes());
+        assertEquals(Arrays.asList("[3] element can not be null", "[999] age must > 0 while calling saveAll",
+                "[1999] age must > 0 while calling saveAll"), sequential.getMessages());
+        assertEquals(sequential.getMessages(), parallel.getMessages());
+        assertEquals(5000, parallel.getSize());
+        // below the threshold of the parallel checker
+        List<User> few = users.subList(0, 50);
+        assertEquals(eachReport(few, Integer.MAX_VALUE).getFailedIndexes(), eachReport(few, 100).getFailedIndexes());
+        assertEquals(BitSet.valueOf(new long[]{1L << 3}), eachReport(few, 100).getFailedIndexes());
+    }
+
+    @Test
+    void asyncFailureIsAFailedFuture() {
+        UserService returning = proxy(new UserService(), CheckerInterceptor.builder()
+                .unsuccessful(IllegalArgumentException::new).build());
+        CompletableFuture<String> failed = returning.saveAsync(new User(null, 1));
+        assertTrue(failed.isCompletedExceptionally());
+        ExecutionException e = assertThrows(ExecutionException.class, failed::get);
+        assertEquals(IllegalArgumentException.class, e.getCause().getClass());
+        assertEquals("name must not null while calling saveAsync", e.getCause().getMessage());
+        UserService throwing = proxy(new UserService(), CheckerInterceptor.builder()
+                .unsuccessful(msg -> {
+                    throw new IllegalStateException(msg);
+                }).build());
+        e = assertThrows(ExecutionException.class, () -> throwing.saveAsync(new User(null, 1)).get());
+        assertEquals(IllegalStateException.class, e.getCause().getClass());
+        assertEquals("ok", throwing.saveAsync(new User("a", 1)).join());
+    }
+
+    @Test
+    void cachedResultsExpire() throws Exception {
+        CheckerInterceptor interceptor = CheckerInterceptor.builder().unsuccessful(msg -> msg).build();
+        UserService service = proxy(new UserService(), interceptor);
+        Counter.EVALUATIONS.set(0);
+        assertEquals("ok", service.expiring(1));
+        assertEquals("ok", service.expiring(1));
+        assertEquals(1, Counter.EVALUATIONS.get());
+        Thread.sleep(300);
+        assertEquals("ok", service.expiring(1));
+        assertEquals(2, Counter.EVALUATIONS.get());
+        SpelCacheStats stats = cacheStats(interceptor, "expiring");
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void cachedResultsAreEvictedBeyondTheMaxSize() {
+        CheckerInterceptor interceptor = CheckerInterceptor.builder().unsuccessful(msg -> msg).build();
+        UserService service = proxy(new UserService(), interceptor);
+        for (int i = 1; i <= 10; i++) {
+            assertEquals("ok", service.bounded(i));
+        }
+        assertEquals("not positive", service.bounded(-1));
+        SpelCacheStats stats = cacheStats(interceptor, "bounded");
+        assertEquals(2, stats.getSize());
+        assertEquals(9, stats.getEvictions());
+        // the latest result is kept
+        assertEquals("not positive", service.bounded(-1));
+        assertEquals(1, cacheStats(interceptor, "bounded").getHits());
+    }
+
+    @Test
+    void shadowModeNeverBlocksTheCall() throws Exception {
+        InMemoryCheckerMetrics metrics = new InMemoryCheckerMetrics();
+        UserService service = proxy(new UserService(), CheckerInterceptor.builder()
+                .unsuccessful(msg -> {
+                    throw new AssertionError("shadow rejected: " + msg);
+                })
+                .mode(CheckMode.SHADOW)
+                .metrics(metrics)
+                .build());
+        assertEquals("ok", service.save(null));
+        assertEquals("ok", service.save(new User(null, 1)));
+        assertEquals("ok", service.saveAll(Arrays.asList(new User("a", 0), null)));
+        assertEquals("ok", service.saveAsync(new User(null, 1)).join());
+        assertEquals("ok", service.save(new User("a", 1)));
+        Method save = UserService.class.getMethod("save", User.class);
+        assertEquals(2, metrics.getMethod(save).getFailures());
+        // the mode of the method wins over the mode of the checker
+        UserService enforced = service();
+        assertEquals("ok", enforced.shadowed(new User(null, 1)));
+        assertEquals("name must not null while calling save", enforced.save(new User(null, 1)));
+    }
+
+    private static SpelCacheStats cacheStats(CheckerInterceptor interceptor, String method) {
+        return interceptor.getSpelCacheStats().entrySet().stream()
+                .filter(entry -> entry.getKey().contains("." + method + " "))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no cache for " + method));
+    }
+
+    private static EachCheckReport eachReport(List<User> users, int parallelThreshold) {
+        UserService service = proxy(new UserService(), CheckerInterceptor.builder()
+                .unsuccessful(msg -> msg)
+                .eachUnsuccessful(report -> report)
+                .eachParallelThreshold(parallelThreshold)
+                .eachMessageLimit(3)
+                .build());
+        return (EachCheckReport) service.saveAll(users);
+    }
+
+    public static class UserService {
+
+        @Check({"name", "age > 0"})
+        public String save(User user) {
+            return "ok";
+        }
+
+        @Check(dynamic = "user.rename")
+        public String rename(User user) {
+            return "ok";
+        }
+
+        @Check(value = {"name", "age > 0"}, each = true)
+        public Object saveAll(List<User> users) {
+            return "ok";
+        }
+
+        @Check("name")
+        public CompletableFuture<String> saveAsync(User user) {
+            return CompletableFuture.completedFuture("ok");
+        }
+
+        @Check("T(cn.ciphermagic.common.checker.CheckerInterceptorTest$Counter).positive(#age)")
+        @CheckCache(ttl = 200)
+        public String expiring(Integer age) {
+            return "ok";
+        }
+
+        @Check("T(cn.ciphermagic.common.checker.CheckerInterceptorTest$Counter).positive(#age): not positive")
+        @CheckCache(maxSize = 2)
+        public String bounded(Integer age) {
+            return "ok";
+        }
+
+        @Check(value = "name", mode = CheckMode.SHADOW)
+        public String shadowed(User user) {
+            return "ok";
+        }
+
+        @Check("[1] > 0")
+        public String limit(User user, Integer limit) {
+            return "ok";
+        }
+    }
+
+    public static class Counter {
+
+        static final AtomicInteger EVALUATIONS = new AtomicInteger();
+
+        public static boolean positive(Integer value) {
+            EVALUATIONS.incrementAndGet();
+            return value > 0;
+        }
+    }
+
+    public static class User {
+        private final String name;
+        private final Integer age;
+
+        public User(String name, Integer age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+    }
+
+}
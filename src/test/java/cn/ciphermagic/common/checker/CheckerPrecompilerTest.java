@@ -0,0 +1,137 @@
+package cn.ciphermagic.common.checker;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.Advisor;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author CipherCui
+ */
+class CheckerPrecompilerTest {
+
+    @Test
+    void invalidRulesFailTheStartupWithTheAspect() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new AnnotationConfigApplicationContext(AspectConfig.class, FailingConfig.class));
+        assertTrue(e.getMessage().contains("invalid @Check rules on"), e.getMessage());
+        assertTrue(e.getMessage().contains("'invalidService'"), e.getMessage());
+    }
+
+    @Test
+    void invalidRulesFailTheStartupWithTheInterceptor() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new AnnotationConfigApplicationContext(InterceptorConfig.class, FailingConfig.class));
+        assertTrue(e.getMessage().contains("'invalidService'"), e.getMessage());
+    }
+
+    @Test
+    void invalidRulesAreLoggedWhenNotFailing() {
+        try (AnnotationConfigApplicationContext context =
+                     new AnnotationConfigApplicationContext(AspectConfig.class, LenientConfig.class)) {
+            InvalidService service = context.getBean(InvalidService.class);
+            assertThrows(IllegalArgumentException.class, () -> service.save(new User(1)));
+        }
+    }
+
+    @Test
+    void validRulesArePrecompiled() {
+        try (AnnotationConfigApplicationContext context =
+                     new AnnotationConfigApplicationContext(AspectConfig.class, ValidConfig.class)) {
+            assertEquals("ok", context.getBean(ValidService.class).save(new User(1)));
+            assertEquals("age must > 0 while calling save", context.getBean(ValidService.class).save(new User(0)));
+        }
+    }
+
+    @Configuration
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    static class AspectConfig {
+        @Bean
+        Checker checker() {
+            return Checker.builder().unsuccess(msg -> msg).build();
+        }
+    }
+
+    @Configuration
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    static class InterceptorConfig {
+        @Bean
+        static Advisor checkAdvisor() {
+            return CheckerInterceptor.checkAdvisor(CheckerInterceptor.builder().unsuccessful(msg -> msg).build());
+        }
+    }
+
+    @Configuration
+    static class FailingConfig {
+        @Bean
+        InvalidService invalidService() {
+            return new InvalidService();
+        }
+
+        @Bean
+        CheckerPrecompiler checkerPrecompiler() {
+            return new CheckerPrecompiler();
+        }
+    }
+
+    @Configuration
+    static class LenientConfig {
+        @Bean
+        InvalidService invalidService() {
+            return new InvalidService();
+        }
+
+        @Bean
+        CheckerPrecompiler checkerPrecompiler() {
+            CheckerPrecompiler precompiler = new CheckerPrecompiler();
+            precompiler.setFailOnError(false);
+            return precompiler;
+        }
+    }
+
+    @Configuration
+    static class ValidConfig {
+        @Bean
+        ValidService validService() {
+            return new ValidService();
+        }
+
+        @Bean
+        CheckerPrecompiler checkerPrecompiler() {
+            return new CheckerPrecompiler();
+        }
+    }
+
+    public static class InvalidService {
+        @Check("age > 1:")
+        public String save(User user) {
+            return "ok";
+        }
+    }
+
+    public static class ValidService {
+        @Check("age > 0")
+        public String save(User user) {
+            return "ok";
+        }
+    }
+
+    public static class User {
+        private final Integer age;
+
+        User(Integer age) {
+            this.age = age;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package cn.ciphermagic.common.checker;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author CipherCui
+ */
+class ConcurrentSpelTest {
+
+    private final InMemoryCheckerMetrics metrics = new InMemoryCheckerMetrics();
+
+    private SlowService service(long timeoutMillis) {
+        CheckerInterceptor interceptor = CheckerInterceptor.builder()
+                .unsuccessful(msg -> msg)
+                .concurrentSpel(4)
+                .spelTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .metrics(metrics)
+                .build();
+        ProxyFactory factory = new ProxyFactory(new SlowService());
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(CheckerInterceptor.checkAdvisor(interceptor));
+        return (SlowService) factory.getProxy();
+    }
+
+    @Test
+    void spelRulesRunConcurrently() {
+        SlowService service = service(5000);
+        // warm up the executor and the plan
+        service.twoSlowRules(1);
+        long start = System.nanoTime();
+        assertEquals("ok", service.twoSlowRules(1));
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(millis < 350, "two rules of 200ms took " + millis + "ms");
+    }
+
+    @Test
+    void slowRuleFailsAtTheTimeoutAndIsRecordedOnce() throws Exception {
+        SlowService service = service(100);
+        long start = System.nanoTime();
+        assertEquals("too slow", service.timedOut(1));
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(millis < 1000, "timed out rule took " + millis + "ms");
+        // let the cancelled rule end, it must not be recorded again
+        Thread.sleep(300);
+        Method method = SlowService.class.getMethod("timedOut", int.class);
+        InMemoryCheckerMetrics.RuleStats stats = metrics.getMethod(method).getRules().get(Slow.RULE);
+        assertEquals(1, stats.getEvaluations());
+        assertEquals(1, stats.getFailures());
+    }
+
+    public static class SlowService {
+
+        @Check({Slow.RULE_200 + ": first", Slow.RULE_200 + " and true: second"})
+        public String twoSlowRules(int n) {
+            return "ok";
+        }
+
+        @Check({"[0] > 0", Slow.RULE + ": too slow", Slow.RULE_200 + ": fast enough"})
+        public String timedOut(int n) {
+            return "ok";
+        }
+    }
+
+    public static class Slow {
+
+        static final String RULE = "T(cn.ciphermagic.common.checker.ConcurrentSpelTest$Slow).sleep(500)";
+        static final String RULE_200 = "T(cn.ciphermagic.common.checker.ConcurrentSpelTest$Slow).sleep(200)";
+
+        public static boolean sleep(long millis) throws InterruptedException {
+            Thread.sleep(millis);
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,351 @@
+package cn.ciphermagic.common.checker;
+
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * services checking random value objects, shared by the equivalence tests
+ *
+ * @author CipherCui
+ */
+final class RuleFixtures {
+
+    private RuleFixtures() {
+    }
+
+    /**
+     * @return checked methods of the service, by name
+     */
+    static List<Method> methods(Class<?> service) {
+        return Arrays.stream(service.getDeclaredMethods())
+                .filter(method -> method.isAnnotationPresent(Check.class))
+                .sorted(Comparator.comparing(Method::getName))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * proxy the service with the interceptor
+     */
+    static Object proxy(Class<?> service, CheckerInterceptor interceptor) throws Exception {
+        ProxyFactory factory = new ProxyFactory(service.getConstructor().newInstance());
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(CheckerInterceptor.checkAdvisor(interceptor));
+        return factory.getProxy();
+    }
+
+    /**
+     * call the method of the proxy
+     *
+     * @return result, or the class of the exception thrown
+     */
+    static String call(Object proxy, Method method, Vo vo) {
+        try {
+            return String.valueOf(method.invoke(proxy, vo));
+        } catch (InvocationTargetException e) {
+            return e.getTargetException().getClass().getName();
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static Vo random(Random random) {
+        float[] floats = {2.5f, 5f, -1f, 0f, -0f, 2.4f, 2.6f, 7f, Float.NaN};
+        double[] doubles = {2.5, 5, -1, 0, -0d, 2.4, 2.6, 7, Double.NaN};
+        Object[] strings = {null, "", "abc", "abcde", "abcdef", "5", "2.5", "-1"};
+        Object[] objects = {null, "", "x", new ArrayList<>(), Collections.singletonList(1), 3};
+        Vo vo = new Vo();
+        vo.str = (String) strings[random.nextInt(strings.length)];
+        vo.list = random.nextInt(5) == 0 ? null : new ArrayList<>(Collections.nCopies(random.nextInt(8), "x"));
+        vo.i = random.nextInt(5) == 0 ? null : random.nextInt(11) - 2;
+        vo.pi = random.nextInt(11) - 2;
+        vo.l = random.nextInt(5) == 0 ? null : (long) (random.nextInt(11) - 2);
+        vo.pl = random.nextInt(11) - 2;
+        vo.s = random.nextInt(5) == 0 ? null : (short) (random.nextInt(11) - 2);
+        vo.ps = (short) (random.nextInt(11) - 2);
+        vo.f = random.nextInt(5) == 0 ? null : floats[random.nextInt(floats.length)];
+        vo.pf = floats[random.nextInt(floats.length)];
+        vo.d = random.nextInt(5) == 0 ? null : doubles[random.nextInt(doubles.length)];
+        vo.pd = doubles[random.nextInt(doubles.length)];
+        vo.o = objects[random.nextInt(objects.length)];
+        vo.bd = random.nextBoolean() ? null : BigDecimal.valueOf(random.nextInt(11) - 2);
+        return vo;
+    }
+
+    /**
+     * rules turned into generated validators
+     */
+    public static class GeneratedRules {
+
+        @Check("str")
+        public String strNotNull(Vo vo) {
+            return "ok";
+        }
+
+        @Check("list")
+        public String listNotNull(Vo vo) {
+            return "ok";
+        }
+
+        @Check("i")
+        public String integerNotNull(Vo vo) {
+            return "ok";
+        }
+
+        @Check("pi")
+        public String intNotNull(Vo vo) {
+            return "ok";
+        }
+
+        @Check("o")
+        public String objectNotNull(Vo vo) {
+            return "ok";
+        }
+
+        @Check("i > 5")
+        public String integerGreaterThan(Vo vo) {
+            return "ok";
+        }
+
+        @Check("i > 2.5")
+        public String integerGreaterThanDecimal(Vo vo) {
+            return "ok";
+        }
+
+        @Check("pi >= 0")
+        public String intGreaterThanEqual(Vo vo) {
+            return "ok";
+        }
+
+        @Check("l < -1")
+        public String longLessThan(Vo vo) {
+            return "ok";
+        }
+
+        @Check("pl <= 5")
+        public String primitiveLongLessThanEqual(Vo vo) {
+            return "ok";
+        }
+
+        @Check("l != abc")
+        public String longNotEqualText(Vo vo) {
+            return "ok";
+        }
+
+        @Check("s != 0")
+        public String shortNotEqual(Vo vo) {
+            return "ok";
+        }
+
+        @Check("ps > -1")
+        public String primitiveShortGreaterThan(Vo vo) {
+            return "ok";
+        }
+
+        @Check("f > 2.5")
+        public String floatGreaterThan(Vo vo) {
+            return "ok";
+        }
+
+        @Check("pf >= 2.5")
+        public String primitiveFloatGreaterThanEqual(Vo vo) {
+            return "ok";
+        }
+
+        @Check("f != 0")
+        public String floatNotEqual(Vo vo) {
+            return "ok";
+        }
+
+        @Check("d < 0")
+        public String doubleLessThan(Vo vo) {
+            return "ok";
+        }
+
+        @Check("pd != 2.5")
+        public String primitiveDoubleNotEqual(Vo vo) {
+            return "ok";
+        }
+
+        @Check("pd <= 5")
+        public String primitiveDoubleLessThanEqual(Vo vo) {
+            return "ok";
+        }
+
+        @Check("str > 5")
+        public String strLengthGreaterThan(Vo vo) {
+            return "ok";
+        }
+
+        @Check("str != abc")
+        public String strNotEqual(Vo vo) {
+            return "ok";
+        }
+
+        @Check("list >= 5")
+        public String listSizeGreaterThanEqual(Vo vo) {
+            return "ok";
+        }
+
+        @Check({"str", "i > 0", "pd < 5"})
+        public String chain(Vo vo) {
+            return "ok";
+        }
+    }
+
+    /**
+     * rules kept by the interpretive check
+     */
+    public static class InterpretedRules {
+
+        @Check("bd > 0")
+        public String bigDecimalGreaterThan(Vo vo) {
+            return "ok";
+        }
+
+        @Check("o > 0")
+        public String objectGreaterThan(Vo vo) {
+            return "ok";
+        }
+
+        @Check("str ~= ^a")
+        public String strMatches(Vo vo) {
+            return "ok";
+        }
+
+        @Check("i in 5,0")
+        public String integerIn(Vo vo) {
+            return "ok";
+        }
+
+        @Check("d between -1 and 2.5")
+        public String doubleBetween(Vo vo) {
+            return "ok";
+        }
+
+        @Check({"str", "bd != 5"})
+        public String chain(Vo vo) {
+            return "ok";
+        }
+    }
+
+    /**
+     * several rules per method, failing at different rates
+     */
+    public static class RuleChains {
+
+        @Check({"str", "i > 0", "pd < 5", "list >= 5"})
+        public String strFirst(Vo vo) {
+            return "ok";
+        }
+
+        @Check({"pi >= -2", "pf != 0", "d <= 5", "str ~= ^a"})
+        public String rarelyFailingFirst(Vo vo) {
+            return "ok";
+        }
+
+        @Check({"bd != 5", "o", "l in 5,0", "ps > 0"})
+        public String mixedTypes(Vo vo) {
+            return "ok";
+        }
+
+        @Check({"f between -1 and 2.5", "s < 5", "list", "str != abc", "pl <= 0"})
+        public String fiveRules(Vo vo) {
+            return "ok";
+        }
+
+        @Check({"o > 0", "i", "str > 5"})
+        public String oftenFailingLast(Vo vo) {
+            return "ok";
+        }
+    }
+
+    public static class Vo {
+        private String str;
+        private List<String> list;
+        private Integer i;
+        private int pi;
+        private Long l;
+        private long pl;
+        private Short s;
+        private short ps;
+        private Float f;
+        private float pf;
+        private Double d;
+        private double pd;
+        private Object o;
+        private BigDecimal bd;
+
+        public String getStr() {
+            return str;
+        }
+
+        public List<String> getList() {
+            return list;
+        }
+
+        public Integer getI() {
+            return i;
+        }
+
+        public int getPi() {
+            return pi;
+        }
+
+        public Long getL() {
+            return l;
+        }
+
+        public long getPl() {
+            return pl;
+        }
+
+        public Short getS() {
+            return s;
+        }
+
+        public short getPs() {
+            return ps;
+        }
+
+        public Float getF() {
+            return f;
+        }
+
+        public float getPf() {
+            return pf;
+        }
+
+        public Double getD() {
+            return d;
+        }
+
+        public double getPd() {
+            return pd;
+        }
+
+        public Object getO() {
+            return o;
+        }
+
+        public BigDecimal getBd() {
+            return bd;
+        }
+
+        @Override
+        public String toString() {
+            return "Vo{str=" + str + ", list=" + list + ", i=" + i + ", pi=" + pi + ", l=" + l + ", pl=" + pl + ", s=" + s
+                    + ", ps=" + ps + ", f=" + f + ", pf=" + pf + ", d=" + d + ", pd=" + pd + ", o=" + o + ", bd=" + bd + "}";
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package cn.ciphermagic.common.checker;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author CipherCui
+ */
+class RuleSpecTest {
+
+    @Test
+    void messageFollowsTheLastSeparator() {
+        RuleSpec spec = RuleSpec.parse("time ~= \\d{2}:\\d{2} : time must be hh mm");
+        assertEquals("time", spec.field);
+        assertEquals(Operator.MATCHES, spec.optEnum);
+        assertEquals("\\d{2}:\\d{2}", spec.operatorNum);
+        assertEquals("time must be hh mm", spec.customMsg);
+        assertTrue(spec.predicate.test("12:30"));
+        assertFalse(spec.predicate.test("1230"));
+    }
+
+    @Test
+    void escapedSeparatorBelongsToTheRule() {
+        RuleSpec spec = RuleSpec.parse("time~=\\d{2}\\:\\d{2}");
+        assertEquals("\\d{2}:\\d{2}", spec.operatorNum);
+        assertEquals("", spec.customMsg);
+        assertTrue(spec.predicate.test("12:30"));
+    }
+
+    @Test
+    void ruleWithoutSeparator() {
+        RuleSpec spec = RuleSpec.parse("age > 1");
+        assertEquals("age", spec.field);
+        assertEquals("1", spec.operatorNum);
+        assertEquals("", spec.customMsg);
+    }
+
+    @Test
+    void emptyMessageIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> RuleSpec.parse("age > 1:"));
+    }
+
+    @Test
+    void unknownOperatorIsReported() {
+        assertThrows(RuleSpec.UnknownOperatorException.class, () -> RuleSpec.parse("age unknown 1"));
+    }
+
+}
@@ -0,0 +1,213 @@
+package cn.ciphermagic.common.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author CipherCui
+ */
+class ObjAdapterTest {
+
+    private static final int SIZE = 20_000;
+
+    @AfterEach
+    void reset() {
+        ObjAdapter.setParallelThreshold(Integer.MAX_VALUE);
+        ObjAdapter.setParallelExecutor(null);
+    }
+
+    @Test
+    void parallelConversionKeepsTheOrder() {
+        ObjAdapter.setParallelThreshold(1000);
+        assertOrdered(ObjAdapter.convert(sources(), Target.class, (source, target) -> target.name = "n" + source.id));
+    }
+
+    @Test
+    void parallelConversionOnAnExecutorKeepsTheOrder() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ObjAdapter.setParallelThreshold(1000);
+            ObjAdapter.setParallelExecutor(executor);
+            assertOrdered(ObjAdapter.convert(sources(), Target.class, (source, target) -> target.name = "n" + source.id));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void parallelFailureCarriesTheIndex() {
+        ObjAdapter.setParallelThreshold(1000);
+        ObjConversionException e = assertThrows(ObjConversionException.class,
+                () -> ObjAdapter.convert(sources(), Target.class, ObjAdapterTest::failAt12345));
+        assertEquals(12345, e.getIndex());
+    }
+
+    @Test
+    void parallelFailureOnAnExecutorCarriesTheIndex() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ObjAdapter.setParallelThreshold(1000);
+            ObjAdapter.setParallelExecutor(executor);
+            ObjConversionException e = assertThrows(ObjConversionException.class,
+                    () -> ObjAdapter.convert(sources(), Target.class, ObjAdapterTest::failAt12345));
+            assertEquals(12345, e.getIndex());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void sequentialFailureCarriesTheIndex() {
+        ObjConversionException e = assertThrows(ObjConversionException.class,
+                () -> ObjAdapter.convert(sources(), Target.class, ObjAdapterTest::failAt12345));
+        assertEquals(12345, e.getIndex());
+    }
+
+    @Test
+    void lowestFailureIsRaised() {
+        assertEquals(3000, lowestFailure());
+        ObjAdapter.setParallelThreshold(1000);
+        assertEquals(3000, lowestFailure());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ObjAdapter.setParallelExecutor(executor);
+            assertEquals(3000, lowestFailure());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void errorsAreNotWrapped() {
+        BiConsumer<Source, Target> decorator = (source, target) -> {
+            if (source.id == 12345) {
+                throw new AssertionError("bad");
+            }
+        };
+        assertThrows(AssertionError.class, () -> ObjAdapter.convert(sources(), Target.class, decorator));
+        ObjAdapter.setParallelThreshold(1000);
+        assertThrows(AssertionError.class, () -> ObjAdapter.convert(sources(), Target.class, decorator));
+    }
+
+    @Test
+    void nullSourceResolvesToTheCollectionConversion() {
+        List<Target> targets = ObjAdapter.convert(null, Target.class);
+        assertTrue(targets.isEmpty());
+    }
+
+    @Test
+    void lazyConversionConvertsConsumedElementsOnly() {
+        AtomicInteger converted = new AtomicInteger();
+        BiConsumer<Source, Target> decorator = (source, target) -> {
+            converted.incrementAndGet();
+            target.name = "n" + source.id;
+        };
+        List<Target> firstTwo = ObjAdapter.convertLazily(sources().stream(), Target.class, decorator)
+                .limit(2).collect(Collectors.toList());
+        assertEquals(2, firstTwo.size());
+        assertEquals("n1", firstTwo.get(1).name);
+        assertEquals(2, converted.get());
+        Iterator<Target> iterator = ObjAdapter.convertLazily(sources().iterator(), Target.class, decorator);
+        assertEquals(0, iterator.next().id);
+        assertEquals(3, converted.get());
+        assertFalse(ObjAdapter.convertLazily((Iterator<Source>) null, Target.class).hasNext());
+    }
+
+    @Test
+    void suppliedTargetsAreFilled() {
+        List<Target> targets = ObjAdapter.convertLazilyInto(sources().stream().limit(3), Target::new)
+                .collect(Collectors.toList());
+        assertEquals(3, targets.size());
+        assertEquals(2, targets.get(2).id);
+        // one reused instance is overwritten by every element
+        Target shared = new Target();
+        Iterator<Target> iterator = ObjAdapter.convertLazilyInto(sources().iterator(), () -> shared);
+        Target first = iterator.next();
+        assertEquals(0, first.id);
+        assertSame(first, iterator.next());
+        assertEquals(1, first.id);
+    }
+
+    /**
+     * convert with elements 3000 and 17000 failing. In parallel, the element before 3000 waits for 17000 to fail
+     *
+     * @return index of the failure raised
+     */
+    private static int lowestFailure() {
+        CountDownLatch laterFailed = new CountDownLatch(1);
+        ObjConversionException e = assertThrows(ObjConversionException.class,
+                () -> ObjAdapter.convert(sources(), Target.class, (source, target) -> {
+                    if (source.id == 2999) {
+                        await(laterFailed);
+                    }
+                    if (source.id == 17000) {
+                        laterFailed.countDown();
+                        throw new IllegalStateException("bad " + source.id);
+                    }
+                    if (source.id == 3000) {
+                        throw new IllegalStateException("bad " + source.id);
+                    }
+                }));
+        return e.getIndex();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(200, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<Source> sources() {
+        return IntStream.range(0, SIZE).mapToObj(Source::new).collect(Collectors.toList());
+    }
+
+    private static void failAt12345(Source source, Target target) {
+        if (source.id == 12345) {
+            throw new IllegalStateException("bad " + source.id);
+        }
+    }
+
+    private static void assertOrdered(List<Target> targets) {
+        assertEquals(SIZE, targets.size());
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(i, targets.get(i).id);
+            assertEquals("n" + i, targets.get(i).name);
+        }
+    }
+
+    public static class Source {
+        public int id;
+
+        public Source() {
+        }
+
+        Source(int id) {
+            this.id = id;
+        }
+    }
+
+    public static class Target {
+        public long id;
+        public String name;
+    }
+
+}
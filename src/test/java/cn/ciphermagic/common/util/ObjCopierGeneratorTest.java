@@ -0,0 +1,342 @@
+package cn.ciphermagic.common.util;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author CipherCui
+ */
+class ObjCopierGeneratorTest {
+
+    private final ObjectMapper mapper = ConversionEngine.defaultMapper();
+    private final ConversionEngine jackson = new ConversionEngine(mapper, false);
+    private final ConversionEngine copiers = new ConversionEngine(mapper, true);
+
+    @Test
+    void copiersMatchJackson() {
+        assertNotNull(copiers.copier(Source.class, Target.class));
+        assertSameConversion(full(), Target.class);
+        // null wrappers into primitives and wrappers
+        assertSameConversion(new Source(), Target.class);
+        Source negative = full();
+        negative.setIntToLong(Integer.MIN_VALUE);
+        negative.setShortToDouble(Short.MIN_VALUE);
+        negative.setStatus(Status.OFF);
+        assertSameConversion(negative, Target.class);
+    }
+
+    @Test
+    void copiersUpdateLikeJackson() {
+        Target fromJackson = jackson.convertInto(new Source(), existing());
+        Target fromCopier = copiers.convertInto(new Source(), existing());
+        assertEquals(tree(fromJackson), tree(fromCopier));
+    }
+
+    @Test
+    void customSerializersAreLeftToJackson() {
+        ObjectMapper custom = ConversionEngine.defaultMapper().registerModule(new SimpleModule()
+                .addSerializer(Source.class, new StdSerializer<Source>(Source.class) {
+                    @Override
+                    public void serialize(Source value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                        gen.writeStartObject();
+                        gen.writeNumberField("boxed", 42);
+                        gen.writeEndObject();
+                    }
+                }));
+        ConversionEngine engine = new ConversionEngine(custom, true);
+        assertNull(engine.copier(Source.class, Target.class));
+        assertEquals(42, engine.convert(full(), Target.class).getBoxed());
+        assertNull(copiers.copier(Serialized.class, Target.class));
+        assertEquals(tree(jackson.convert(new Serialized(), Target.class)), tree(copiers.convert(new Serialized(), Target.class)));
+    }
+
+    @Test
+    void annotatedPropertiesAreLeftToJackson() {
+        assertNull(copiers.copier(Formatted.class, Target.class));
+        assertSameConversion(new Formatted(), Target.class);
+        assertNull(copiers.copier(Source.class, Formatted.class));
+    }
+
+    private void assertSameConversion(Object source, Class<?> targetClass) {
+        assertEquals(tree(jackson.convert(source, targetClass)), tree(copiers.convert(source, targetClass)));
+    }
+
+    private String tree(Object value) {
+        return mapper.valueToTree(value).toString();
+    }
+
+    private static Source full() {
+        Source source = new Source();
+        source.setPrimitive(7);
+        source.setBoxed(8);
+        source.setNullToPrimitive(9L);
+        source.setIntToLong(10);
+        source.setShortToDouble((short) 11);
+        source.setFlag(true);
+        source.setText("text");
+        source.setAmount(new BigDecimal("12.50"));
+        source.setStatus(Status.ON);
+        source.setName("renamed");
+        source.setSecret("secret");
+        return source;
+    }
+
+    private static Target existing() {
+        Target target = new Target();
+        target.setPrimitive(1);
+        target.setBoxed(2);
+        target.setNullToPrimitive(3);
+        target.setText("old");
+        return target;
+    }
+
+    public enum Status {
+        ON, OFF
+    }
+
+    public static class Source {
+        private int primitive;
+        private Integer boxed;
+        private Long nullToPrimitive;
+        private int intToLong;
+        private short shortToDouble;
+        private Boolean flag;
+        private String text;
+        private BigDecimal amount;
+        private Status status;
+        private String name;
+        private String secret;
+
+        public int getPrimitive() {
+            return primitive;
+        }
+
+        public void setPrimitive(int primitive) {
+            this.primitive = primitive;
+        }
+
+        public Integer getBoxed() {
+            return boxed;
+        }
+
+        public void setBoxed(Integer boxed) {
+            this.boxed = boxed;
+        }
+
+        public Long getNullToPrimitive() {
+            return nullToPrimitive;
+        }
+
+        public void setNullToPrimitive(Long nullToPrimitive) {
+            this.nullToPrimitive = nullToPrimitive;
+        }
+
+        public int getIntToLong() {
+            return intToLong;
+        }
+
+        public void setIntToLong(int intToLong) {
+            this.intToLong = intToLong;
+        }
+
+        public short getShortToDouble() {
+            return shortToDouble;
+        }
+
+        public void setShortToDouble(short shortToDouble) {
+            this.shortToDouble = shortToDouble;
+        }
+
+        public Boolean getFlag() {
+            return flag;
+        }
+
+        public void setFlag(Boolean flag) {
+            this.flag = flag;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public void setText(String text) {
+            this.text = text;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        @JsonProperty("fullName")
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        @JsonIgnore
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+    }
+
+    public static class Target {
+        private int primitive;
+        private Integer boxed;
+        private long nullToPrimitive;
+        private long intToLong;
+        private double shortToDouble;
+        private boolean flag;
+        private String text;
+        private BigDecimal amount;
+        private Status status;
+        private String fullName;
+        private String secret;
+
+        public int getPrimitive() {
+            return primitive;
+        }
+
+        public void setPrimitive(int primitive) {
+            this.primitive = primitive;
+        }
+
+        public Integer getBoxed() {
+            return boxed;
+        }
+
+        public void setBoxed(Integer boxed) {
+            this.boxed = boxed;
+        }
+
+        public long getNullToPrimitive() {
+            return nullToPrimitive;
+        }
+
+        public void setNullToPrimitive(long nullToPrimitive) {
+            this.nullToPrimitive = nullToPrimitive;
+        }
+
+        public long getIntToLong() {
+            return intToLong;
+        }
+
+        public void setIntToLong(long intToLong) {
+            this.intToLong = intToLong;
+        }
+
+        public double getShortToDouble() {
+            return shortToDouble;
+        }
+
+        public void setShortToDouble(double shortToDouble) {
+            this.shortToDouble = shortToDouble;
+        }
+
+        public boolean isFlag() {
+            return flag;
+        }
+
+        public void setFlag(boolean flag) {
+            this.flag = flag;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public void setText(String text) {
+            this.text = text;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        public String getFullName() {
+            return fullName;
+        }
+
+        public void setFullName(String fullName) {
+            this.fullName = fullName;
+        }
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+    }
+
+    @JsonSerialize(using = SerializedSerializer.class)
+    public static class Serialized {
+        public int primitive = 5;
+    }
+
+    public static class SerializedSerializer extends StdSerializer<Serialized> {
+        public SerializedSerializer() {
+            super(Serialized.class);
+        }
+
+        @Override
+        public void serialize(Serialized value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeNumberField("primitive", value.primitive * 2);
+            gen.writeEndObject();
+        }
+    }
+
+    public static class Formatted {
+        @JsonFormat(shape = JsonFormat.Shape.STRING)
+        public int primitive = 6;
+        public Integer boxed = 7;
+    }
+
+}